@@ -0,0 +1,103 @@
+package com.InventoryManagement;
+
+//AttributeDictionary.java
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Global dictionary that encodes repeated free-form attribute strings
+ * (category, laptop processor, smartphone operating system) as small integer codes.
+ *
+ * Every distinct spelling gets its own code so the original text can be returned for display.
+ * Every code also points at a "key": the code of its normalized (trimmed, lower-case) form.
+ * Two spellings that only differ in case share the same key, so case-insensitive comparisons
+ * become a single integer equality check instead of re-lowercasing strings.
+ */
+public final class AttributeDictionary {
+
+ public static final int NO_CODE = -1; // Returned by lookups for values that were never encoded
+
+ private static final AttributeDictionary GLOBAL = new AttributeDictionary();
+
+ private final Map<String, Integer> codesBySpelling = new HashMap<>(); // Exact spelling -> code
+ private final Map<String, Integer> keysByNormalized = new HashMap<>(); // Normalized form -> key
+ private volatile String[] spellings = new String[64]; // code -> original spelling
+ private volatile int[] keys = new int[64];            // code -> key (normalized code)
+ private int size;
+
+ private AttributeDictionary() {
+ }
+
+ // The single dictionary shared by every product in the JVM
+ public static AttributeDictionary global() {
+     return GLOBAL;
+ }
+
+ // Normalized form used for case-insensitive comparisons
+ public static String normalize(String value) {
+     return value.trim().toLowerCase();
+ }
+
+ // Get the code for a spelling, adding it to the dictionary on first use
+ public synchronized int encode(String value) {
+     if (value == null) {
+         return NO_CODE;
+     }
+     Integer existing = codesBySpelling.get(value);
+     if (existing != null) {
+         return existing;
+     }
+     int code = size;
+     int[] keyTable = keys;
+     String[] spellingTable = spellings;
+     if (code == spellingTable.length) {
+         keyTable = Arrays.copyOf(keyTable, code * 2);
+         spellingTable = Arrays.copyOf(spellingTable, code * 2);
+     }
+     String normalized = normalize(value);
+     Integer key = keysByNormalized.get(normalized);
+     if (key == null) {
+         key = code; // First spelling of this normalized form becomes the key
+         keysByNormalized.put(normalized, key);
+     }
+     keyTable[code] = key;
+     spellingTable[code] = value;
+     codesBySpelling.put(value, code);
+     size = code + 1;
+     // Publish after filling in the entry: readers that see these volatile writes also see the new code
+     keys = keyTable;
+     spellings = spellingTable;
+     return code;
+ }
+
+ // Get the key for a value without adding it; NO_CODE if no product ever used it
+ public synchronized int lookupKey(String value) {
+     if (value == null) {
+         return NO_CODE;
+     }
+     Integer key = keysByNormalized.get(normalize(value));
+     return key != null ? key : NO_CODE;
+ }
+
+ // Original spelling for a code
+ public String decode(int code) {
+     if (code == NO_CODE) {
+         return null;
+     }
+     return spellings[code];
+ }
+
+ // Normalized key for a code; two codes compare equal ignoring case if their keys are equal
+ public int keyOf(int code) {
+     if (code == NO_CODE) {
+         return NO_CODE;
+     }
+     return keys[code];
+ }
+
+ // Number of distinct spellings encoded so far
+ public synchronized int size() {
+     return size;
+ }
+}
@@ -0,0 +1,219 @@
+package com.InventoryManagement;
+
+//ChangeStream.java
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Change-data-capture stream of inventory mutations, built as a pre-allocated ring buffer.
+ *
+ * Publishers claim a sequence number with a CAS, fill the slot in place and mark it published,
+ * so publishing allocates nothing. Each consumer has its own {@link Subscription} with an
+ * independent sequence and drains whatever is available in batches. Publishers never overwrite a
+ * slot that the slowest subscription has not consumed yet: when the ring is full the
+ * {@link BackpressurePolicy} decides whether the publisher waits or the event is dropped.
+ */
+public class ChangeStream {
+
+ public enum BackpressurePolicy {
+     BLOCK, // Publisher spins/yields until the slowest subscription frees a slot (lossless)
+     DROP   // Event is discarded and counted; publishers never wait
+ }
+
+ private final InventoryEvent[] ring;
+ private final int mask;
+ private final int indexShift;                // log2(capacity): sequence >>> indexShift is the slot's round
+ private final AtomicIntegerArray publishedRounds; // Round last published into each slot (-1 = never)
+ private final AtomicLong claimed = new AtomicLong(-1); // Highest sequence handed to a publisher
+ private final BackpressurePolicy policy;
+ private final LongAdder dropped = new LongAdder();
+ private volatile Subscription[] subscriptions = new Subscription[0];
+ private volatile long cachedMinimum = -1; // Cache of the slowest subscription; may lag, but is always a lower bound
+
+ // capacity is rounded up to a power of two
+ public ChangeStream(int capacity, BackpressurePolicy policy) {
+     if (capacity < 1 || capacity > (1 << 30)) {
+         throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+     }
+     int size = Integer.highestOneBit(capacity);
+     if (size < capacity) {
+         size <<= 1;
+     }
+     this.ring = new InventoryEvent[size];
+     for (int i = 0; i < size; i++) {
+         ring[i] = new InventoryEvent();
+     }
+     this.mask = size - 1;
+     this.indexShift = Integer.numberOfTrailingZeros(size);
+     this.publishedRounds = new AtomicIntegerArray(size);
+     for (int i = 0; i < size; i++) {
+         publishedRounds.set(i, -1);
+     }
+     this.policy = policy;
+ }
+
+ // Publish one mutation; false only if the ring was full and the policy is DROP
+ public boolean publish(InventoryEvent.Type type, Product product, int quantity) {
+     return publish(type, product, quantity, 0);
+ }
+
+ // As above, for movements that carry a unit cost (STOCK_IN, and the opening stock of PRODUCT_ADDED)
+ public boolean publish(InventoryEvent.Type type, Product product, int quantity, double unitCost) {
+     long sequence = claim();
+     if (sequence < 0) {
+         return false;
+     }
+     int index = (int) sequence & mask;
+     ring[index].set(type, product, quantity, unitCost, System.currentTimeMillis());
+     publishedRounds.lazySet(index, (int) (sequence >>> indexShift)); // Release: slot contents become visible
+     return true;
+ }
+
+ // Publish a whole repricing run as one BULK_REPRICE event (the arrays are handed over, not copied)
+ public boolean publishRepricing(String[] productIds, double[] newPrices) {
+     long sequence = claim();
+     if (sequence < 0) {
+         return false;
+     }
+     int index = (int) sequence & mask;
+     ring[index].setRepricing(productIds, newPrices, System.currentTimeMillis());
+     publishedRounds.lazySet(index, (int) (sequence >>> indexShift));
+     return true;
+ }
+
+ // Claim the next sequence, waiting or dropping as the policy says when the ring is full; -1 if dropped
+ private long claim() {
+     long sequence;
+     while (true) {
+         long current = claimed.get();
+         sequence = current + 1;
+         long wrapPoint = sequence - ring.length;
+         if (wrapPoint > cachedMinimum) {
+             long minimum = minimumSequence(current);
+             cachedMinimum = minimum;
+             if (wrapPoint > minimum) {
+                 if (policy == BackpressurePolicy.DROP) {
+                     dropped.increment();
+                     return -1;
+                 }
+                 Thread.yield(); // Wait for the slowest subscription to move on
+                 continue;
+             }
+         }
+         if (claimed.compareAndSet(current, sequence)) {
+             return sequence;
+         }
+     }
+ }
+
+ // Start following the stream from the next published event
+ public Subscription subscribe() {
+     synchronized (this) {
+         Subscription subscription = new Subscription(claimed.get());
+         Subscription[] grown = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+         grown[grown.length - 1] = subscription;
+         subscriptions = grown;
+         return subscription;
+     }
+ }
+
+ // Highest sequence claimed so far (-1 before the first event)
+ public long getCursor() {
+     return claimed.get();
+ }
+
+ public int getCapacity() {
+     return ring.length;
+ }
+
+ public long getDroppedCount() {
+     return dropped.sum();
+ }
+
+ // Open subscriptions; each one gates publishers
+ public int getSubscriberCount() {
+     return subscriptions.length;
+ }
+
+ private long minimumSequence(long fallback) {
+     long minimum = fallback;
+     for (Subscription subscription : subscriptions) {
+         minimum = Math.min(minimum, subscription.sequence.get());
+     }
+     return minimum;
+ }
+
+ private synchronized void unsubscribe(Subscription subscription) {
+     Subscription[] current = subscriptions;
+     Subscription[] shrunk = new Subscription[current.length - 1];
+     int j = 0;
+     for (Subscription s : current) {
+         if (s != subscription) {
+             shrunk[j++] = s;
+         }
+     }
+     subscriptions = shrunk;
+ }
+
+ /**
+  * One independent consumer position in the stream. Poll from a single thread.
+  */
+ public final class Subscription {
+     private final AtomicLong sequence; // Last sequence this consumer has finished with
+     private volatile boolean closed;
+
+     private Subscription(long start) {
+         this.sequence = new AtomicLong(start);
+     }
+
+     // Deliver up to maxBatch available events in order; returns how many were delivered
+     public int poll(InventoryEventHandler handler, int maxBatch) {
+         if (closed) {
+             return 0;
+         }
+         long next = sequence.get() + 1;
+         long last = next - 1;
+         long limit = next + maxBatch - 1;
+         while (last < limit && isPublished(last + 1)) {
+             last++;
+         }
+         if (last < next) {
+             return 0;
+         }
+         long s = next;
+         try {
+             for (; s <= last; s++) {
+                 handler.onEvent(ring[(int) s & mask], s, s == last);
+             }
+         } finally {
+             sequence.lazySet(s - 1); // Free the slots for publishers, even if the handler threw
+         }
+         return (int) (last - next + 1);
+     }
+
+     // Events published but not yet consumed by this subscription
+     public long getLag() {
+         return Math.max(0, claimed.get() - sequence.get());
+     }
+
+     public long getSequence() {
+         return sequence.get();
+     }
+
+     // Stop gating publishers; further polls return nothing. Safe to call from any thread, more than once.
+     public void close() {
+         synchronized (ChangeStream.this) {
+             if (!closed) {
+                 closed = true;
+                 unsubscribe(this);
+             }
+         }
+     }
+
+     private boolean isPublished(long s) {
+         return publishedRounds.get((int) s & mask) == (int) (s >>> indexShift);
+     }
+ }
+}
@@ -1,9 +1,12 @@
 // ConsoleInventoryManager.java
 package com.InventoryManagement;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.Set; // Used for filtering by categories
+import java.util.TreeSet;
 
 /**
  * Console-based application for managing inventory.
@@ -14,6 +17,7 @@ public class ConsoleInventoryManager {
 
     private Inventory inventory; // Instance of the backend Inventory manager
     private Scanner scanner;     // For reading user input from the console
+    private TableRenderer renderer; // Buffered product/transaction table output
 
     /**
      * Constructor for ConsoleInventoryManager.
@@ -22,17 +26,19 @@ public class ConsoleInventoryManager {
      */
     public ConsoleInventoryManager() {
         inventory = new Inventory(); // Initialize your Inventory backend
+        inventory.getMetrics().registerMBean("console"); // Expose operation metrics over JMX
         scanner = new Scanner(System.in);
+        renderer = new TableRenderer();
 
         // --- Add some sample data for testing purposes ---
         // This helps you test functionality without manually adding everything each time.
         System.out.println("Initializing inventory with sample data...");
-        inventory.addProduct(new Product("P001", "Generic Item A", 10.50, 100, "Electronics"));
-        inventory.addProduct(new Laptop("L001", "Dell XPS 15", 1500.00, 50, "Laptops", "Intel i7", 16, 512));
-        inventory.addProduct(new Smartphone("S001", "iPhone 15", 999.99, 75, "Smartphones", 6.1, 48, "iOS"));
-        inventory.addProduct(new Product("P002", "Office Chair", 120.00, 30, "Furniture"));
-        inventory.addProduct(new Product("P003", "USB Cable", 5.99, 200, "Accessories"));
-        inventory.addProduct(new Smartphone("S002", "Samsung Galaxy", 799.00, 60, "Smartphones", 6.7, 64, "Android"));
+        inventory.addProduct(new Product("P001", "Generic Item A", 10.50, 100, "Electronics"), 6.25); // Opening stock at unit cost
+        inventory.addProduct(new Laptop("L001", "Dell XPS 15", 1500.00, 50, "Laptops", "Intel i7", 16, 512), 1100.00);
+        inventory.addProduct(new Smartphone("S001", "iPhone 15", 999.99, 75, "Smartphones", 6.1, 48, "iOS"), 720.00);
+        inventory.addProduct(new Product("P002", "Office Chair", 120.00, 30, "Furniture"), 70.00);
+        inventory.addProduct(new Product("P003", "USB Cable", 5.99, 200, "Accessories"), 1.80);
+        inventory.addProduct(new Smartphone("S002", "Samsung Galaxy", 799.00, 60, "Smartphones", 6.7, 64, "Android"), 560.00);
         System.out.println("Sample data loaded.\n");
     }
 
@@ -78,6 +84,18 @@ public class ConsoleInventoryManager {
                     case 9:
                         viewTransactions();
                         break;
+                    case 10:
+                        viewMetrics();
+                        break;
+                    case 11:
+                        viewReplenishmentPlan();
+                        break;
+                    case 12:
+                        repriceCategory();
+                        break;
+                    case 13:
+                        viewValuation();
+                        break;
                     case 0:
                         System.out.println("Exiting Inventory Management System. Goodbye!");
                         break;
@@ -108,6 +126,10 @@ public class ConsoleInventoryManager {
         System.out.println("7. Search Product by Name");
         System.out.println("8. Filter Products by Category");
         System.out.println("9. View All Transactions");
+        System.out.println("10. View Operation Metrics");
+        System.out.println("11. View Replenishment Plan");
+        System.out.println("12. Reprice Category");
+        System.out.println("13. View Inventory Valuation");
         System.out.println("0. Exit");
     }
 
@@ -133,6 +155,12 @@ public class ConsoleInventoryManager {
             System.out.println("Error: Quantity cannot be negative. Aborting add product.");
             return;
         }
+        System.out.print("Enter Unit Cost: ");
+        double unitCost = parseDoubleInput(); // Opening cost basis; later restocks without a cost are valued at it
+        if (!(unitCost >= 0) || Double.isInfinite(unitCost)) {
+            System.out.println("Error: Unit cost must be a non-negative number. Aborting add product.");
+            return;
+        }
         System.out.print("Enter Category: ");
         String category = scanner.nextLine().trim();
 
@@ -188,7 +216,7 @@ public class ConsoleInventoryManager {
             }
 
             // Attempt to add the product to the inventory
-            if (inventory.addProduct(newProduct)) {
+            if (inventory.addProduct(newProduct, unitCost)) {
                 System.out.println("Product added successfully!");
             } else {
                 System.out.println("Error: Product with ID '" + productId + "' already exists. Please use a unique ID.");
@@ -343,8 +371,23 @@ public class ConsoleInventoryManager {
             System.out.println("Error: Quantity must be positive.");
             return;
         }
+        System.out.print("Enter Unit Cost (blank = current average cost): ");
+        String costInput = scanner.nextLine().trim();
+        double unitCost = Double.NaN; // Unknown cost: valued at the current average
+        if (!costInput.isEmpty()) {
+            try {
+                unitCost = Double.parseDouble(costInput);
+            } catch (NumberFormatException e) {
+                System.out.println("Error: Invalid unit cost.");
+                return;
+            }
+            if (unitCost < 0 || Double.isInfinite(unitCost)) {
+                System.out.println("Error: Unit cost must be a non-negative number.");
+                return;
+            }
+        }
 
-        if (inventory.addStock(productId, quantity)) {
+        if (inventory.addStock(productId, quantity, unitCost)) {
             System.out.println(quantity + " units added to Product ID '" + productId + "'. New quantity: " + inventory.getProduct(productId).getQuantity());
         } else {
             System.out.println("Error: Product with ID '" + productId + "' not found.");
@@ -383,36 +426,11 @@ public class ConsoleInventoryManager {
      */
     private void viewAllProducts() {
         System.out.println("\n--- All Products ---");
-        List<Product> allProducts = inventory.getAllProducts();
-        if (allProducts.isEmpty()) {
+        if (inventory.getProductCount() == 0) {
             System.out.println("No products in inventory.");
             return;
         }
-        // Print header for clarity
-        System.out.printf("%-10s %-25s %-10s %-10s %-15s %s\n", "ID", "Name", "Price", "Qty", "Category", "Specific Details");
-        System.out.println("---------------------------------------------------------------------------------------------------");
-        for (Product product : allProducts) {
-            // Determine specific details string based on product type
-            String specificDetails = "";
-            if (product instanceof Laptop) {
-                Laptop laptop = (Laptop) product;
-                specificDetails = String.format("Processor: %s, RAM: %dGB, Storage: %dGB",
-                                                laptop.getProcessor(), laptop.getRamGB(), laptop.getStorageGB());
-            } else if (product instanceof Smartphone) {
-                Smartphone smartphone = (Smartphone) product;
-                specificDetails = String.format("Screen: %.1fin, Camera: %dMP, OS: %s",
-                                                smartphone.getScreenSizeInches(), smartphone.getCameraMP(), smartphone.getOperatingSystem());
-            }
-            // Use String.format for aligned output
-            System.out.printf("%-10s %-25s %-10.2f %-10d %-15s %s\n",
-                    product.getProductId(),
-                    product.getName(),
-                    product.getPrice(),
-                    product.getQuantity(),
-                    product.getCategory(),
-                    specificDetails // Use the determined specificDetails string
-            );
-        }
+        renderer.renderProducts(inventory); // Renders a slice at a time under the read lock, writes with it released
     }
 
     /**
@@ -423,35 +441,22 @@ public class ConsoleInventoryManager {
         System.out.print("Enter search term (product name or part of it): ");
         String searchTerm = scanner.nextLine().trim();
 
+        // Quick prefix matches on product IDs and name words, ranked by stock on hand
+        List<Product> suggestions = inventory.autocomplete(searchTerm, 5, ProductAutocomplete.Ranking.STOCK);
+        if (!suggestions.isEmpty() && !searchTerm.isEmpty()) {
+            System.out.println("Top matches by stock (ID or word starting with '" + searchTerm + "'):");
+            for (Product product : suggestions) {
+                System.out.println("  " + product.getProductId() + " - " + product.getName() + " (Qty: " + product.getQuantity() + ")");
+            }
+        }
+
         List<Product> searchResults = inventory.searchProductsByName(searchTerm);
         if (searchResults.isEmpty()) {
             System.out.println("No products found matching '" + searchTerm + "'.");
             return;
         }
         System.out.println("Search Results for '" + searchTerm + "':");
-        System.out.printf("%-10s %-25s %-10s %-10s %-15s %s\n", "ID", "Name", "Price", "Qty", "Category", "Specific Details");
-        System.out.println("---------------------------------------------------------------------------------------------------");
-        for (Product product : searchResults) {
-            // Determine specific details string based on product type
-            String specificDetails = "";
-            if (product instanceof Laptop) {
-                Laptop laptop = (Laptop) product;
-                specificDetails = String.format("Processor: %s, RAM: %dGB, Storage: %dGB",
-                                                laptop.getProcessor(), laptop.getRamGB(), laptop.getStorageGB());
-            } else if (product instanceof Smartphone) {
-                Smartphone smartphone = (Smartphone) product;
-                specificDetails = String.format("Screen: %.1fin, Camera: %dMP, OS: %s",
-                                                smartphone.getScreenSizeInches(), smartphone.getCameraMP(), smartphone.getOperatingSystem());
-            }
-            System.out.printf("%-10s %-25s %-10.2f %-10d %-15s %s\n",
-                    product.getProductId(),
-                    product.getName(),
-                    product.getPrice(),
-                    product.getQuantity(),
-                    product.getCategory(),
-                    specificDetails // Use the determined specificDetails string
-            );
-        }
+        renderer.renderProducts(searchResults); // Shared buffered table renderer
     }
 
     /**
@@ -480,29 +485,7 @@ public class ConsoleInventoryManager {
             return;
         }
         System.out.println("Products in category '" + categoryFilter + "':");
-        System.out.printf("%-10s %-25s %-10s %-10s %-15s %s\n", "ID", "Name", "Price", "Qty", "Category", "Specific Details");
-        System.out.println("---------------------------------------------------------------------------------------------------");
-        for (Product product : filteredProducts) {
-            // Determine specific details string based on product type
-            String specificDetails = "";
-            if (product instanceof Laptop) {
-                Laptop laptop = (Laptop) product;
-                specificDetails = String.format("Processor: %s, RAM: %dGB, Storage: %dGB",
-                                                laptop.getProcessor(), laptop.getRamGB(), laptop.getStorageGB());
-            } else if (product instanceof Smartphone) {
-                Smartphone smartphone = (Smartphone) product;
-                specificDetails = String.format("Screen: %.1fin, Camera: %dMP, OS: %s",
-                                                smartphone.getScreenSizeInches(), smartphone.getCameraMP(), smartphone.getOperatingSystem());
-            }
-            System.out.printf("%-10s %-25s %-10.2f %-10d %-15s %s\n",
-                    product.getProductId(),
-                    product.getName(),
-                    product.getPrice(),
-                    product.getQuantity(),
-                    product.getCategory(),
-                    specificDetails // Use the determined specificDetails string
-            );
-        }
+        renderer.renderProducts(filteredProducts); // Shared buffered table renderer
     }
 
     /**
@@ -510,26 +493,90 @@ public class ConsoleInventoryManager {
      */
     private void viewTransactions() {
         System.out.println("\n--- All Transactions ---");
-        List<Transaction> transactions = inventory.getAllTransactions();
-        if (transactions.isEmpty()) {
+        if (inventory.getTransactionCount() == 0) {
             System.out.println("No transactions recorded yet.");
             return;
         }
-        // Print header for clarity
-        System.out.printf("%-10s %-15s %-10s %-10s %-20s\n", "Trans ID", "Product ID", "Type", "Quantity", "Date");
-        System.out.println("--------------------------------------------------------------------");
-        for (Transaction t : transactions) {
-            // Using t.toString() here as it already provides the formatted date string
-            System.out.printf("%-10s %-15s %-10s %-10d %-20s\n",
-                    t.getTransactionId().substring(0, 8) + "...", // Shorten UUID for display
-                    t.getProductId(),
-                    t.getType(),
-                    t.getQuantity(),
-                    t.getTransactionDate().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) // Corrected method call
+        renderer.renderTransactions(inventory); // Streams the transaction log a slice at a time
+    }
+
+    /**
+     * Displays operation counters, movement rates and latency percentiles.
+     */
+    private void viewMetrics() {
+        System.out.println("\n--- Operation Metrics ---");
+        System.out.print(inventory.getMetrics().dump());
+    }
+
+    /**
+     * Displays products at or below their reorder point, based on smoothed demand from OUT movements.
+     */
+    private void viewReplenishmentPlan() {
+        System.out.println("\n--- Replenishment Plan ---");
+        List<ReorderSuggestion> plan = inventory.getReplenishmentPlan();
+        if (plan.isEmpty()) {
+            System.out.println("No products need reordering (demand is learned from stock removals).");
+            return;
+        }
+        System.out.printf("%-10s %-10s %-15s %-15s %-15s %s\n", "ID", "Stock", "Demand/Day", "Reorder Point", "Order-Up-To", "Suggested Order");
+        System.out.println("-----------------------------------------------------------------------------------");
+        for (ReorderSuggestion suggestion : plan) {
+            System.out.printf("%-10s %-10d %-15.2f %-15.1f %-15.1f %d\n",
+                    suggestion.getProductId(),
+                    suggestion.getCurrentStock(),
+                    suggestion.getDemandRate(),
+                    suggestion.getReorderPoint(),
+                    suggestion.getOrderUpToLevel(),
+                    suggestion.getSuggestedQuantity()
             );
         }
     }
 
+    /**
+     * Applies a percentage price change to every product in a category in one atomic step.
+     */
+    private void repriceCategory() {
+        System.out.println("\n--- Reprice Category ---");
+        System.out.print("Enter Category: ");
+        String category = scanner.nextLine().trim();
+        System.out.print("Enter Price Change (%, e.g. 5 or -10): ");
+        double percent = parseDoubleInput();
+        System.out.print("Round prices to .99? (y/n): ");
+        boolean charm = scanner.nextLine().trim().equalsIgnoreCase("y");
+
+        List<PricingRule> rules = new ArrayList<>();
+        rules.add(new PricingRule(String.format("%+.1f%% on %s", percent, category),
+                PricingRule.inCategory(category), PricingRule.percentChange(percent)));
+        if (charm) {
+            rules.add(new PricingRule("Round to .99 on " + category,
+                    PricingRule.inCategory(category), PricingRule.roundToNinetyNine()));
+        }
+        RepricingResult result = inventory.reprice(rules);
+        if (result.getProductsMatched() == 0) {
+            System.out.println("No products found in category '" + category + "'.");
+        } else {
+            System.out.println("Repricing done. " + result);
+        }
+    }
+
+    /**
+     * Displays stock value at cost per category and in total, by weighted average and FIFO.
+     */
+    private void viewValuation() {
+        System.out.println("\n--- Inventory Valuation (at cost) ---");
+        Map<String, Double> average = inventory.getCategoryValues(InventoryValuation.CostMethod.WEIGHTED_AVERAGE);
+        Map<String, Double> fifo = inventory.getCategoryValues(InventoryValuation.CostMethod.FIFO);
+        System.out.printf("%-20s %-18s %s\n", "Category", "Weighted Average", "FIFO");
+        System.out.println("-----------------------------------------------------");
+        for (String category : new TreeSet<>(average.keySet())) {
+            System.out.printf("%-20s %-18.2f %.2f\n", category, average.get(category), fifo.get(category));
+        }
+        System.out.println("-----------------------------------------------------");
+        System.out.printf("%-20s %-18.2f %.2f\n", "Total",
+                inventory.getInventoryValue(InventoryValuation.CostMethod.WEIGHTED_AVERAGE),
+                inventory.getInventoryValue(InventoryValuation.CostMethod.FIFO));
+    }
+
     /**
      * Helper method to safely parse integer input from the console.
      * Keeps prompting until a valid integer is entered.
@@ -0,0 +1,145 @@
+package com.InventoryManagement;
+
+//CostLedger.java
+/**
+ * Cost state of one product's stock: a weighted-average unit cost and FIFO cost layers.
+ *
+ * Layers are kept oldest-first in a growable ring, so receiving appends one layer and issuing
+ * consumes from the front; each layer is created and consumed once, so both are amortized O(1).
+ * Running values are kept for both methods, so reading them never walks the layers.
+ */
+final class CostLedger {
+ private int[] layerQuantities = new int[2];
+ private double[] layerCosts = new double[2];
+ private int head;
+ private int layers;
+ private long quantity;        // Units held, as seen by the ledger
+ private double averageCost;   // Weighted-average unit cost of the units held (kept as the last known cost when none are)
+ private double fifoValue;     // Sum of quantity * cost over the layers
+
+ long getQuantity() {
+     return quantity;
+ }
+
+ double getAverageCost() {
+     return averageCost;
+ }
+
+ double getAverageValue() {
+     return quantity * averageCost;
+ }
+
+ double getFifoValue() {
+     return fifoValue;
+ }
+
+ int getLayerCount() {
+     return layers;
+ }
+
+ // i-th layer, oldest first
+ int getLayerQuantity(int i) {
+     return layerQuantities[(head + i) & (layerQuantities.length - 1)];
+ }
+
+ double getLayerCost(int i) {
+     return layerCosts[(head + i) & (layerCosts.length - 1)];
+ }
+
+ // A usable unit cost: finite and not negative
+ static boolean isValidCost(double unitCost) {
+     return unitCost >= 0 && unitCost != Double.POSITIVE_INFINITY;
+ }
+
+ // Units received at unitCost: new average and a new FIFO layer (merged if the cost is unchanged).
+ // False, and nothing changes, if the cost is not valid.
+ boolean receive(int units, double unitCost) {
+     if (!isValidCost(unitCost)) {
+         return false;
+     }
+     if (units <= 0) {
+         if (quantity == 0) {
+             averageCost = unitCost; // Nothing held: the cost is still the best basis for cost-less receipts
+         }
+         return true;
+     }
+     averageCost = (quantity * averageCost + units * unitCost) / (quantity + units);
+     quantity += units;
+     fifoValue += units * unitCost;
+     int mask = layerQuantities.length - 1;
+     if (layers > 0) {
+         int tail = (head + layers - 1) & mask;
+         if (layerCosts[tail] == unitCost && layerQuantities[tail] <= Integer.MAX_VALUE - units) {
+             layerQuantities[tail] += units;
+             return true;
+         }
+     }
+     if (layers == layerQuantities.length) {
+         grow();
+         mask = layerQuantities.length - 1;
+     }
+     int slot = (head + layers) & mask;
+     layerQuantities[slot] = units;
+     layerCosts[slot] = unitCost;
+     layers++;
+     return true;
+ }
+
+ // Units issued: consumed from the oldest layers; the average cost is unchanged, even when the last unit
+ // goes, so a later receipt without a cost is still valued at it. Returns the FIFO cost issued.
+ double issue(int units) {
+     if (units <= 0) {
+         return 0;
+     }
+     int mask = layerQuantities.length - 1;
+     int remaining = units;
+     double cost = 0;
+     while (remaining > 0 && layers > 0) {
+         int taken = Math.min(remaining, layerQuantities[head]);
+         cost += taken * layerCosts[head];
+         remaining -= taken;
+         layerQuantities[head] -= taken;
+         if (layerQuantities[head] == 0) {
+             head = (head + 1) & mask;
+             layers--;
+         }
+     }
+     quantity = Math.max(0, quantity - units);
+     fifoValue = layers == 0 ? 0 : fifoValue - cost; // Reset when empty so rounding error can't linger
+     return cost;
+ }
+
+ // Rebuild from a copied state (replication snapshots); false, and nothing changes, if any cost is not valid
+ boolean restore(double averageCost, int[] quantities, double[] costs) {
+     if (!isValidCost(averageCost)) {
+         return false;
+     }
+     for (double cost : costs) {
+         if (!isValidCost(cost)) {
+             return false;
+         }
+     }
+     this.head = 0;
+     this.layers = 0;
+     this.quantity = 0;
+     this.fifoValue = 0;
+     for (int i = 0; i < quantities.length; i++) {
+         receive(quantities[i], costs[i]);
+     }
+     this.averageCost = averageCost;
+     return true;
+ }
+
+ private void grow() {
+     int size = layerQuantities.length;
+     int[] quantities = new int[size * 2];
+     double[] costs = new double[size * 2];
+     for (int i = 0; i < layers; i++) {
+         quantities[i] = layerQuantities[(head + i) & (size - 1)];
+         costs[i] = layerCosts[(head + i) & (size - 1)];
+     }
+     layerQuantities = quantities;
+     layerCosts = costs;
+     head = 0;
+ }
+}
@@ -0,0 +1,164 @@
+package com.InventoryManagement;
+
+//DemandForecaster.java
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental per-product demand forecasting from OUT movements.
+ *
+ * Demand is bucketed into fixed periods (one day by default). When a period closes, its total
+ * is folded into an exponentially weighted mean and variance, so each removeStock costs O(1)
+ * and the transaction history is never rescanned. Reorder points and order quantities follow
+ * the usual order-up-to policy:
+ *   reorder point  = mean * L + z * sd * sqrt(L)
+ *   order-up-to    = mean * (L + R) + z * sd * sqrt(L + R)
+ * where L is the lead time and R the review interval, both in periods, and z the service-level factor.
+ *
+ * Inventory records demand under its write lock and computes plans under its read lock, so plans
+ * never race with updates (the plan itself runs on the common fork-join pool).
+ */
+public class DemandForecaster {
+ private final long periodMillis;
+ private final double alpha;            // Smoothing factor for each closed period, 0 < alpha <= 1
+ private final double leadTimePeriods;
+ private final double reviewPeriods;
+ private final double serviceLevelZ;    // e.g. 1.65 for ~95% cycle service level
+ private final int maxEmptyPeriods;     // Beyond this many idle periods the old mean is negligible
+ private final Clock clock;
+ private final Map<String, DemandState> states = new HashMap<>();
+
+ // Per-product smoothed demand; fields are read without locking by plan()
+ private static final class DemandState {
+     long currentPeriod;   // Period currently accumulating demand
+     double currentDemand; // Units taken out during currentPeriod so far
+     double mean;
+     double variance;
+     long closedPeriods;
+
+     DemandState(long period) {
+         this.currentPeriod = period;
+     }
+ }
+
+ // Daily periods, alpha 0.2, 7-day lead time, weekly review, ~95% service level
+ public DemandForecaster() {
+     this(Duration.ofDays(1), 0.2, 7, 7, 1.65, Clock.systemDefaultZone());
+ }
+
+ public DemandForecaster(Duration period, double alpha, double leadTimePeriods, double reviewPeriods,
+                         double serviceLevelZ, Clock clock) {
+     if (period.isZero() || period.isNegative() || alpha <= 0 || alpha > 1) {
+         throw new IllegalArgumentException("Period must be positive and alpha in (0, 1]");
+     }
+     this.periodMillis = period.toMillis();
+     this.alpha = alpha;
+     this.leadTimePeriods = leadTimePeriods;
+     this.reviewPeriods = reviewPeriods;
+     this.serviceLevelZ = serviceLevelZ;
+     this.clock = clock;
+     this.maxEmptyPeriods = alpha == 1 ? 1 : (int) Math.ceil(Math.log(1e-9) / Math.log(1 - alpha));
+ }
+
+ // Record demand (an OUT movement) for a product: O(1)
+ public void recordDemand(String productId, int quantity) {
+     long period = Math.floorDiv(clock.millis(), periodMillis);
+     DemandState state = states.get(productId);
+     if (state == null) {
+         state = new DemandState(period);
+         states.put(productId, state);
+     } else if (period > state.currentPeriod) {
+         closePeriods(state, period);
+     }
+     state.currentDemand += quantity;
+ }
+
+ // Stop tracking a deleted product
+ public void forget(String productId) {
+     states.remove(productId);
+ }
+
+ // Suggestion for one product (no history means zero demand)
+ public ReorderSuggestion suggest(Product product) {
+     return suggest(product, Math.floorDiv(clock.millis(), periodMillis));
+ }
+
+ // Suggestions for every given product, computed in parallel
+ public List<ReorderSuggestion> plan(Collection<? extends Product> products) {
+     long period = Math.floorDiv(clock.millis(), periodMillis);
+     return products.parallelStream()
+             .map(p -> suggest(p, period))
+             .collect(Collectors.toList());
+ }
+
+ private ReorderSuggestion suggest(Product product, long nowPeriod) {
+     double mean = 0;
+     double variance = 0;
+     DemandState state = states.get(product.getProductId());
+     if (state != null) {
+         double[] projected = project(state, nowPeriod);
+         mean = projected[0];
+         variance = projected[1];
+     }
+     double sd = Math.sqrt(variance);
+     double reorderPoint = mean * leadTimePeriods + serviceLevelZ * sd * Math.sqrt(leadTimePeriods);
+     double coverPeriods = leadTimePeriods + reviewPeriods;
+     double orderUpTo = mean * coverPeriods + serviceLevelZ * sd * Math.sqrt(coverPeriods);
+     int stock = product.getQuantity();
+     int suggested = 0;
+     if (mean > 0 && stock <= reorderPoint) {
+         suggested = (int) Math.ceil(orderUpTo - stock);
+     }
+     return new ReorderSuggestion(product.getProductId(), stock, mean, sd, reorderPoint, orderUpTo, suggested);
+ }
+
+ // Mean/variance as of nowPeriod without modifying the state (idle periods count as zero demand)
+ private double[] project(DemandState state, long nowPeriod) {
+     if (state.currentPeriod < nowPeriod) {
+         long closed = state.closedPeriods;
+         double[] mv = {state.mean, state.variance};
+         observe(mv, state.currentDemand, closed++);
+         long idle = Math.min(nowPeriod - state.currentPeriod - 1, maxEmptyPeriods);
+         for (long i = 0; i < idle; i++) {
+             observe(mv, 0, closed++);
+         }
+         return mv;
+     }
+     if (state.closedPeriods == 0) {
+         return new double[] {state.currentDemand, 0}; // First period still open: best guess so far
+     }
+     return new double[] {state.mean, state.variance};
+ }
+
+ // Close the accumulating period and any idle periods up to (not including) newPeriod
+ private void closePeriods(DemandState state, long newPeriod) {
+     double[] mv = {state.mean, state.variance};
+     observe(mv, state.currentDemand, state.closedPeriods++);
+     long idle = Math.min(newPeriod - state.currentPeriod - 1, maxEmptyPeriods);
+     for (long i = 0; i < idle; i++) {
+         observe(mv, 0, state.closedPeriods++);
+     }
+     state.mean = mv[0];
+     state.variance = mv[1];
+     state.currentPeriod = newPeriod;
+     state.currentDemand = 0;
+ }
+
+ // Exponentially weighted mean/variance update; the first observation seeds the mean
+ private void observe(double[] mv, double demand, long observationsSoFar) {
+     if (observationsSoFar == 0) {
+         mv[0] = demand;
+         mv[1] = 0;
+         return;
+     }
+     double diff = demand - mv[0];
+     double increment = alpha * diff;
+     mv[0] += increment;
+     mv[1] = (1 - alpha) * (mv[1] + diff * increment);
+ }
+}
@@ -0,0 +1,104 @@
+package com.InventoryManagement;
+
+//Histogram.java
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-memory, lock-free histogram of non-negative long values
+ * (latencies in nanoseconds, result sizes, ...).
+ *
+ * Values are bucketed log-linearly: every power of two is split into 8 sub-buckets,
+ * so any recorded value is reported within ~12.5% of its true size.
+ * Each bucket is a LongAdder, so concurrent recorders update striped cells instead of
+ * contending on a single lock or counter. Recording touches only its bucket and the running sum;
+ * the count and maximum are derived from the buckets when read.
+ */
+public final class Histogram {
+ private static final int SUB_BUCKET_BITS = 3;
+ private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+ private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS; // Covers the whole long range
+
+ private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+ private final LongAdder sum = new LongAdder();
+
+ public Histogram() {
+     for (int i = 0; i < BUCKET_COUNT; i++) {
+         buckets[i] = new LongAdder();
+     }
+ }
+
+ // Record one value (negative values are clamped to zero)
+ public void record(long value) {
+     if (value < 0) {
+         value = 0;
+     }
+     buckets[bucketIndex(value)].increment();
+     sum.add(value);
+ }
+
+ // O(buckets): summed on read so recording stays cheap
+ public long getCount() {
+     long n = 0;
+     for (LongAdder bucket : buckets) {
+         n += bucket.sum();
+     }
+     return n;
+ }
+
+ // Upper bound of the highest non-empty bucket (within ~12.5% of the true maximum); 0 if nothing was recorded
+ public long getMax() {
+     for (int i = BUCKET_COUNT - 1; i >= 0; i--) {
+         if (buckets[i].sum() > 0) {
+             return bucketUpperBound(i);
+         }
+     }
+     return 0;
+ }
+
+ public double getMean() {
+     long n = getCount();
+     return n == 0 ? 0.0 : (double) sum.sum() / n;
+ }
+
+ // Upper bound of the bucket holding the given percentile (0-100); 0 if nothing was recorded
+ public long getPercentile(double percentile) {
+     long[] snapshot = new long[BUCKET_COUNT];
+     long total = 0;
+     for (int i = 0; i < BUCKET_COUNT; i++) {
+         snapshot[i] = buckets[i].sum();
+         total += snapshot[i];
+     }
+     if (total == 0) {
+         return 0;
+     }
+     long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+     long seen = 0;
+     for (int i = 0; i < BUCKET_COUNT; i++) {
+         seen += snapshot[i];
+         if (seen >= target) {
+             return bucketUpperBound(i);
+         }
+     }
+     return 0; // Unreachable: target <= total
+ }
+
+ // Values below SUB_BUCKETS get exact buckets; larger values keep their top 4 significant bits
+ private static int bucketIndex(long value) {
+     if (value < SUB_BUCKETS) {
+         return (int) value;
+     }
+     int exponent = 63 - Long.numberOfLeadingZeros(value);
+     int shift = exponent - SUB_BUCKET_BITS;
+     int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+     return (shift + 1) * SUB_BUCKETS + subBucket;
+ }
+
+ private static long bucketUpperBound(int index) {
+     if (index < SUB_BUCKETS) {
+         return index;
+     }
+     int shift = index / SUB_BUCKETS - 1;
+     long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+     return lower + (1L << shift) - 1;
+ }
+}
@@ -2,141 +2,750 @@ package com.InventoryManagement;
 
 //Inventory.java
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set; // Added for getAllCategories
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors; // For stream operations like filtering
 
+// Thread-safe: queries share a read lock, mutations take the write lock
 public class Inventory {
+ public static final int PRICE_HISTORY_DEPTH = 16; // Price changes kept per product; older ones are dropped
+
  // Encapsulation: Internal storage is private, not directly accessible from outside
  // Polymorphism: The Map stores Product objects, but can hold instances of its subclasses
  private Map<String, Product> products; // Stores products by productId for quick lookup
  private List<Transaction> transactions; // Stores all transactions
+ private final InventoryMetrics metrics; // Operation counters and latency histograms
+ private final ProductAutocomplete autocomplete; // Prefix index over product IDs and name words
+ private final DemandForecaster forecaster; // Smoothed demand from OUT movements
+ private final ChangeStream changeStream; // Mutation events for downstream consumers
+ private final MovementDeduplicator deduplicator; // Recent idempotency keys of stock movements
+ private final ReadWriteLock lock = new ReentrantReadWriteLock(); // Many concurrent readers, one writer at a time
+ private long writeVersion; // Bumped on every write-lock acquisition, to detect changes between two lock holds
+ private final Map<String, PriceChange> priceHistory = new HashMap<>(); // Product ID -> latest price change
+ private final InventoryValuation valuation = new InventoryValuation(); // Stock value at cost, kept incrementally
 
  public Inventory() {
+     this(1 << 16, ChangeStream.BackpressurePolicy.BLOCK);
+ }
+
+ // Inventory whose change stream has the given ring capacity and full-ring behaviour
+ public Inventory(int changeStreamCapacity, ChangeStream.BackpressurePolicy backpressurePolicy) {
+     this(changeStreamCapacity, backpressurePolicy, new MovementDeduplicator());
+ }
+
+ // As above, with a custom dedup window/capacity for idempotent stock movements
+ public Inventory(int changeStreamCapacity, ChangeStream.BackpressurePolicy backpressurePolicy,
+                  MovementDeduplicator deduplicator) {
      this.products = new HashMap<>(); // Initialize HashMap for products
      this.transactions = new ArrayList<>(); // Initialize ArrayList for transactions
+     this.metrics = new InventoryMetrics(() -> products.size(), () -> transactions.size(),
+             deduplicator::getEarlyRotationCount, deduplicator::getEffectiveWindowMillis);
+     this.autocomplete = new ProductAutocomplete();
+     this.forecaster = new DemandForecaster();
+     this.changeStream = new ChangeStream(changeStreamCapacity, backpressurePolicy);
+     this.deduplicator = deduplicator;
+ }
+
+ // Metrics for this inventory (register with JMX or dump periodically from here)
+ public InventoryMetrics getMetrics() {
+     return metrics;
+ }
+
+ // Stream of every product and stock mutation; call subscribe() on it to follow changes.
+ // Events are published while the write lock is held, so with a BLOCK policy a subscriber must not
+ // wait on Inventory queries while it is behind, or a writer blocked on a full ring can never finish.
+ public ChangeStream getChangeStream() {
+     return changeStream;
+ }
+
+ // Idempotency key window used by addStock/removeStock (its counters are read-only from outside)
+ public MovementDeduplicator getMovementDeduplicator() {
+     return deduplicator;
+ }
+
+ // Run action while no mutation can happen (nor be published), e.g. to take a snapshot that lines up
+ // exactly with a change stream position. Returns false if the lock was not free within the timeout.
+ boolean tryWithMutationsPaused(Runnable action, long timeout, TimeUnit unit) throws InterruptedException {
+     if (!lock.readLock().tryLock(timeout, unit)) {
+         return false;
+     }
+     try {
+         action.run();
+         return true;
+     } finally {
+         lock.readLock().unlock();
+     }
  }
 
  // Abstraction: Public methods provide a high-level interface for inventory operations
 
- // Add a new product (Polymorphism: accepts any Product subclass)
+ // Add a new product (Polymorphism: accepts any Product subclass); opening stock is valued at cost 0
  public boolean addProduct(Product product) {
-     if (products.containsKey(product.getProductId())) {
-         return false; // Product with this ID already exists
+     return addProduct(product, 0);
+ }
+
+ // Add a new product whose opening quantity was bought at unitCost (false if the cost is negative or not finite)
+ public boolean addProduct(Product product, double unitCost) {
+     long start = System.nanoTime();
+     lockForWrite();
+     try {
+         if (!CostLedger.isValidCost(unitCost)) {
+             return false; // Would poison the valuation totals
+         }
+         if (products.containsKey(product.getProductId())) {
+             return false; // Product with this ID already exists
+         }
+         products.put(product.getProductId(), product); // Store the product (can be Product, Laptop, Smartphone)
+         autocomplete.add(product);
+         valuation.addProduct(product, unitCost);
+         changeStream.publish(InventoryEvent.Type.PRODUCT_ADDED, product, 0, unitCost);
+         return true;
+     } finally {
+         lock.writeLock().unlock();
+         metrics.record(InventoryMetrics.Operation.ADD_PRODUCT, start);
      }
-     products.put(product.getProductId(), product); // Store the product (can be Product, Laptop, Smartphone)
-     return true;
  }
 
  // Get a product by ID
  public Product getProduct(String productId) {
-     return products.get(productId); // Efficient O(1) average time lookup using HashMap
+     long start = metrics.startTimer(InventoryMetrics.Operation.GET_PRODUCT);
+     lock.readLock().lock();
+     try {
+         return products.get(productId); // Efficient O(1) average time lookup using HashMap
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.GET_PRODUCT, start);
+     }
  }
 
  // Update product details (base attributes)
  public boolean updateProduct(String productId, String newName, double newPrice, String newCategory) {
-     Product product = products.get(productId);
-     if (product != null) {
+     long start = System.nanoTime();
+     lockForWrite();
+     try {
+         Product product = products.get(productId);
+         if (product == null) {
+             return false; // Product not found
+         }
+         boolean renamed = !product.getName().equals(newName);
+         if (product.getPrice() != newPrice) {
+             recordPriceChange(product, newPrice, System.currentTimeMillis(), "Manual update");
+         }
+         int oldCategoryKey = product.getCategoryKey();
          product.setName(newName);
          product.setPrice(newPrice);
          product.setCategory(newCategory);
+         if (renamed) {
+             autocomplete.reindex(product); // Name words are completion keys
+         }
+         if (product.getCategoryKey() != oldCategoryKey) {
+             valuation.categoryChanged(product, oldCategoryKey); // Category totals follow the product
+         }
+         changeStream.publish(InventoryEvent.Type.PRODUCT_UPDATED, product, 0);
          return true;
+     } finally {
+         lock.writeLock().unlock();
+         metrics.record(InventoryMetrics.Operation.UPDATE_PRODUCT, start);
      }
-     return false; // Product not found
  }
 
  // Update specific attributes for Laptop (Polymorphism: uses instanceof and downcasting)
  public boolean updateLaptop(String productId, String processor, int ramGB, int storageGB) {
-     Product product = products.get(productId);
-     if (product instanceof Laptop) { // Check if it's actually a Laptop
+     long start = System.nanoTime();
+     lockForWrite();
+     try {
+         Product product = products.get(productId);
+         if (!(product instanceof Laptop)) { // Check if it's actually a Laptop
+             return false; // Not a Laptop or not found
+         }
          Laptop laptop = (Laptop) product; // Downcast to Laptop to access specific methods
          laptop.setProcessor(processor);
          laptop.setRamGB(ramGB);
          laptop.setStorageGB(storageGB);
+         changeStream.publish(InventoryEvent.Type.PRODUCT_UPDATED, laptop, 0);
          return true;
+     } finally {
+         lock.writeLock().unlock();
+         metrics.record(InventoryMetrics.Operation.UPDATE_LAPTOP, start);
      }
-     return false; // Not a Laptop or not found
  }
 
  // Update specific attributes for Smartphone (Polymorphism: uses instanceof and downcasting)
  public boolean updateSmartphone(String productId, double screenSizeInches, int cameraMP, String operatingSystem) {
-     Product product = products.get(productId);
-     if (product instanceof Smartphone) { // Check if it's actually a Smartphone
+     long start = System.nanoTime();
+     lockForWrite();
+     try {
+         Product product = products.get(productId);
+         if (!(product instanceof Smartphone)) { // Check if it's actually a Smartphone
+             return false; // Not a Smartphone or not found
+         }
          Smartphone smartphone = (Smartphone) product; // Downcast to Smartphone to access specific methods
          smartphone.setScreenSizeInches(screenSizeInches);
          smartphone.setCameraMP(cameraMP);
          smartphone.setOperatingSystem(operatingSystem);
+         changeStream.publish(InventoryEvent.Type.PRODUCT_UPDATED, smartphone, 0);
          return true;
+     } finally {
+         lock.writeLock().unlock();
+         metrics.record(InventoryMetrics.Operation.UPDATE_SMARTPHONE, start);
      }
-     return false; // Not a Smartphone or not found
  }
 
  // Delete a product
  public boolean deleteProduct(String productId) {
-     if (products.containsKey(productId)) {
-         products.remove(productId); // Remove from HashMap
-         // Optionally, also remove related transactions or mark them as archived
+     long start = System.nanoTime();
+     lockForWrite();
+     try {
+         // Remove from HashMap; optionally, also remove related transactions or mark them as archived
+         Product removed = products.remove(productId);
+         if (removed == null) {
+             return false; // Product not found
+         }
+         autocomplete.remove(productId);
+         forecaster.forget(productId);
+         priceHistory.remove(productId);
+         valuation.removeProduct(removed);
+         changeStream.publish(InventoryEvent.Type.PRODUCT_DELETED, removed, 0);
          return true;
+     } finally {
+         lock.writeLock().unlock();
+         metrics.record(InventoryMetrics.Operation.DELETE_PRODUCT, start);
      }
-     return false; // Product not found
  }
 
- // Add stock to a product
+ // Add stock to a product (at the product's current average unit cost)
  public boolean addStock(String productId, int quantity) {
-     Product product = products.get(productId);
-     if (product != null) {
+     return addStock(productId, quantity, Double.NaN, null);
+ }
+
+ // Add stock once per idempotencyKey: a retry of a movement that was already applied within the
+ // dedup window returns true without touching stock or the transaction log (null key = no dedup)
+ public boolean addStock(String productId, int quantity, String idempotencyKey) {
+     return addStock(productId, quantity, Double.NaN, idempotencyKey);
+ }
+
+ // Add stock bought at unitCost; this updates the average cost and adds a FIFO cost layer
+ public boolean addStock(String productId, int quantity, double unitCost) {
+     return addStock(productId, quantity, unitCost, null);
+ }
+
+ // Add stock bought at unitCost (NaN = current average cost), once per idempotencyKey (null = no dedup).
+ // False if the cost is negative or infinite.
+ public boolean addStock(String productId, int quantity, double unitCost, String idempotencyKey) {
+     long start = System.nanoTime();
+     lockForWrite();
+     try {
+         if (!Double.isNaN(unitCost) && !CostLedger.isValidCost(unitCost)) {
+             return false; // Would poison the valuation totals
+         }
+         if (isDuplicateMovement(idempotencyKey)) {
+             return true; // Already applied by an earlier attempt
+         }
+         Product product = products.get(productId);
+         if (product == null) {
+             return false; // Product not found
+         }
+         if (Double.isNaN(unitCost)) {
+             unitCost = valuation.getAverageUnitCost(productId); // Unknown cost: value at the current average
+         }
          product.addQuantity(quantity); // Calls encapsulated method on Product object
-         transactions.add(new Transaction(productId, Transaction.Type.IN, quantity)); // Record transaction
+         valuation.receive(product, quantity, unitCost);
+         transactions.add(new Transaction(productId, Transaction.Type.IN, quantity, unitCost)); // Record transaction
+         metrics.recordMovement(Transaction.Type.IN, quantity);
+         autocomplete.recordMovement(product, false);
+         changeStream.publish(InventoryEvent.Type.STOCK_IN, product, quantity, unitCost);
+         recordMovementKey(idempotencyKey);
          return true;
+     } finally {
+         lock.writeLock().unlock();
+         metrics.record(InventoryMetrics.Operation.ADD_STOCK, start);
      }
-     return false; // Product not found
  }
 
  // Remove stock from a product
  public boolean removeStock(String productId, int quantity) {
-     Product product = products.get(productId);
-     if (product != null) {
-         if (product.removeQuantity(quantity)) { // Calls encapsulated method on Product object
-             transactions.add(new Transaction(productId, Transaction.Type.OUT, quantity)); // Record transaction
-             return true;
+     return removeStock(productId, quantity, null);
+ }
+
+ // Remove stock once per idempotencyKey (see addStock); failed attempts are not remembered, so they can be retried
+ public boolean removeStock(String productId, int quantity, String idempotencyKey) {
+     long start = System.nanoTime();
+     lockForWrite();
+     try {
+         if (isDuplicateMovement(idempotencyKey)) {
+             return true; // Already applied by an earlier attempt
+         }
+         Product product = products.get(productId);
+         if (product == null) {
+             return false; // Product not found
+         }
+         if (!product.removeQuantity(quantity)) { // Calls encapsulated method on Product object
+             metrics.recordInsufficientStock();
+             return false; // Insufficient stock
+         }
+         double issuedCost = valuation.issue(product, quantity); // FIFO cost of the units leaving stock
+         transactions.add(new Transaction(productId, Transaction.Type.OUT, quantity, issuedCost / quantity)); // Record transaction
+         metrics.recordMovement(Transaction.Type.OUT, quantity);
+         autocomplete.recordMovement(product, true);
+         forecaster.recordDemand(productId, quantity); // OUT movements are the demand signal
+         changeStream.publish(InventoryEvent.Type.STOCK_OUT, product, quantity);
+         recordMovementKey(idempotencyKey);
+         return true;
+     } finally {
+         lock.writeLock().unlock();
+         metrics.record(InventoryMetrics.Operation.REMOVE_STOCK, start);
+     }
+ }
+
+ // Apply rules to every product's price in parallel, then publish all new prices in one write-lock
+ // section. Only reads done under the read lock see none or all of them: forEachProduct and every query
+ // while it runs. Product objects handed out by getProduct, getAllProducts, search and the filters are
+ // live, so a caller reading their prices after the query returned can catch a run part-way through;
+ // use forEachProduct for a price view that must be consistent. Prices are staged under the read lock,
+ // so reads carry on meanwhile; if anything was written in between, staging is redone under the write
+ // lock before publishing.
+ // The whole run goes to the change stream as one BULK_REPRICE event, so a slow subscriber can hold
+ // the write lock up for at most one ring slot, as with any other mutation.
+ public RepricingResult reprice(List<PricingRule> rules) {
+     long start = System.nanoTime();
+     String reason = "Repricing: " + rules.stream().map(PricingRule::getDescription).collect(Collectors.joining("; "));
+     RepricingEngine.StagedPrices staged;
+     long stagedVersion;
+     lock.readLock().lock();
+     try {
+         stagedVersion = writeVersion;
+         staged = RepricingEngine.stage(products.values(), rules);
+     } finally {
+         lock.readLock().unlock();
+     }
+     lock.writeLock().lock();
+     try {
+         boolean restaged = writeVersion != stagedVersion;
+         if (restaged) {
+             staged = RepricingEngine.stage(products.values(), rules); // Catalogue changed since staging
+         }
+         writeVersion++;
+         long now = System.currentTimeMillis();
+         for (int i = 0; i < staged.products.length; i++) {
+             Product product = staged.products[i];
+             recordPriceChange(product, staged.newPrices[i], now, reason);
+             product.setPrice(staged.newPrices[i]);
+         }
+         if (staged.products.length > 0) {
+             changeStream.publishRepricing(staged.productIds, staged.newPrices);
+         }
+         return new RepricingResult(staged.matched, staged.products.length, staged.invalid, restaged,
+                 TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+     } finally {
+         lock.writeLock().unlock();
+         metrics.record(InventoryMetrics.Operation.REPRICE, start);
+     }
+ }
+
+ // Latest PRICE_HISTORY_DEPTH price changes of a product, oldest first (empty if it never changed or does not exist)
+ public List<PriceChange> getPriceHistory(String productId) {
+     long start = metrics.startTimer(InventoryMetrics.Operation.PRICE_HISTORY);
+     List<PriceChange> history = new ArrayList<>();
+     lock.readLock().lock();
+     try {
+         PriceChange c = priceHistory.get(productId);
+         for (int i = 0; i < PRICE_HISTORY_DEPTH && c != null; i++, c = c.previous) {
+             history.add(c);
          }
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.PRICE_HISTORY, start);
+     }
+     Collections.reverse(history);
+     return history;
+ }
+
+ // Stock value at cost over the whole inventory: O(1)
+ public double getInventoryValue(InventoryValuation.CostMethod method) {
+     long start = metrics.startTimer(InventoryMetrics.Operation.VALUATION);
+     lock.readLock().lock();
+     try {
+         return valuation.getTotalValue(method);
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.VALUATION, start);
+     }
+ }
+
+ // Stock value at cost of one category (case-insensitive; 0 if it holds no stock): O(1)
+ public double getCategoryValue(String category, InventoryValuation.CostMethod method) {
+     long start = metrics.startTimer(InventoryMetrics.Operation.VALUATION);
+     lock.readLock().lock();
+     try {
+         return valuation.getCategoryValue(category, method);
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.VALUATION, start);
+     }
+ }
+
+ // Stock value at cost of every category, O(number of categories)
+ public Map<String, Double> getCategoryValues(InventoryValuation.CostMethod method) {
+     long start = metrics.startTimer(InventoryMetrics.Operation.VALUATION);
+     lock.readLock().lock();
+     try {
+         return valuation.getCategoryValues(method);
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.VALUATION, start);
+     }
+ }
+
+ // Stock value at cost of one product (0 if not found)
+ public double getProductValue(String productId, InventoryValuation.CostMethod method) {
+     long start = metrics.startTimer(InventoryMetrics.Operation.VALUATION);
+     lock.readLock().lock();
+     try {
+         return valuation.getProductValue(productId, method);
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.VALUATION, start);
+     }
+ }
+
+ // Weighted-average unit cost of a product's stock on hand, or its last known unit cost when sold out (0 if not found)
+ public double getAverageUnitCost(String productId) {
+     long start = metrics.startTimer(InventoryMetrics.Operation.VALUATION);
+     lock.readLock().lock();
+     try {
+         return valuation.getAverageUnitCost(productId);
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.VALUATION, start);
+     }
+ }
+
+ // Cost state of a product for replication snapshots; caller must keep mutations out
+ CostLedger getCostLedger(String productId) {
+     return valuation.getLedger(productId);
+ }
+
+ // Replace a product's cost state with one copied from a leader snapshot; false if the product is
+ // unknown or a cost is negative or not finite
+ boolean restoreCostLedger(String productId, double averageCost, int[] layerQuantities, double[] layerCosts) {
+     lockForWrite();
+     try {
+         Product product = products.get(productId);
+         return product != null && valuation.restoreLedger(product, averageCost, layerQuantities, layerCosts);
+     } finally {
+         lock.writeLock().unlock();
+     }
+ }
+
+ // Apply a repricing run received from a replication leader, all at once; false (and nothing changes)
+ // if any product is unknown
+ boolean applyRepricing(String[] productIds, double[] newPrices) {
+     lockForWrite();
+     try {
+         Product[] repriced = new Product[productIds.length];
+         for (int i = 0; i < productIds.length; i++) {
+             repriced[i] = products.get(productIds[i]);
+             if (repriced[i] == null) {
+                 return false;
+             }
+         }
+         long now = System.currentTimeMillis();
+         for (int i = 0; i < repriced.length; i++) {
+             recordPriceChange(repriced[i], newPrices[i], now, "Replicated repricing");
+             repriced[i].setPrice(newPrices[i]);
+         }
+         changeStream.publishRepricing(productIds, newPrices);
+         return true;
+     } finally {
+         lock.writeLock().unlock();
+     }
+ }
+
+ // Caller holds the write lock; call before the product's price is changed
+ private void recordPriceChange(Product product, double newPrice, long timestampMillis, String reason) {
+     String id = product.getProductId();
+     PriceChange latest = new PriceChange(product.getPrice(), newPrice, timestampMillis, reason, priceHistory.get(id));
+     priceHistory.put(id, latest);
+     if (latest.depth > 2 * PRICE_HISTORY_DEPTH) {
+         // Cut back to PRICE_HISTORY_DEPTH entries once the chain doubles, so trimming is O(1) amortized
+         PriceChange c = latest;
+         for (int depth = PRICE_HISTORY_DEPTH; depth > 1; depth--, c = c.previous) {
+             c.depth = depth;
+         }
+         c.depth = 1;
+         c.previous = null;
+     }
+ }
+
+ private void lockForWrite() {
+     lock.writeLock().lock();
+     writeVersion++;
+ }
+
+ // Caller holds the write lock
+ private boolean isDuplicateMovement(String idempotencyKey) {
+     if (idempotencyKey != null && deduplicator.isDuplicate(idempotencyKey)) {
+         metrics.recordDuplicateMovement();
+         return true;
+     }
+     return false;
+ }
+
+ // Caller holds the write lock
+ private void recordMovementKey(String idempotencyKey) {
+     if (idempotencyKey != null) {
+         deduplicator.record(idempotencyKey);
      }
-     return false; // Product not found or insufficient stock
  }
 
  // Get all products as a list (useful for display)
  // Polymorphism: Returns a list of Product, which can contain Laptop or Smartphone instances
  public List<Product> getAllProducts() {
-     return new ArrayList<>(products.values()); // Returns a new ArrayList containing all products
+     long start = System.nanoTime();
+     lock.readLock().lock();
+     try {
+         return new ArrayList<>(products.values()); // Returns a new ArrayList containing all products
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.GET_ALL_PRODUCTS, start);
+     }
  }
 
  // Get all transactions
  public List<Transaction> getAllTransactions() {
-     return new ArrayList<>(transactions); // Returns a new ArrayList containing all transactions
+     long start = System.nanoTime();
+     lock.readLock().lock();
+     try {
+         return new ArrayList<>(transactions); // Returns a new ArrayList containing all transactions
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.GET_ALL_TRANSACTIONS, start);
+     }
+ }
+
+ // Number of products in the catalogue
+ public int getProductCount() {
+     lock.readLock().lock();
+     try {
+         return products.size();
+     } finally {
+         lock.readLock().unlock();
+     }
+ }
+
+ // Number of recorded transactions
+ public int getTransactionCount() {
+     lock.readLock().lock();
+     try {
+         return transactions.size();
+     } finally {
+         lock.readLock().unlock();
+     }
+ }
+
+ // Visit every product without copying the catalogue; runs under the read lock throughout, so the prices
+ // seen are never from a half-published repricing run, and writers wait for the whole visit
+ public void forEachProduct(Consumer<? super Product> action) {
+     long start = System.nanoTime();
+     lock.readLock().lock(); // Writers wait until the visit finishes
+     try {
+         products.values().forEach(action);
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.FOR_EACH_PRODUCT, start);
+     }
+ }
+
+ // Visit listed[from, to) under the read lock, skipping products deleted since they were listed (e.g. by
+ // getAllProducts). Lets a long listing hold the lock one slice at a time, not while it writes output.
+ public void forEachProduct(List<Product> listed, int from, int to, Consumer<? super Product> action) {
+     long start = System.nanoTime();
+     lock.readLock().lock();
+     try {
+         for (int i = from; i < to; i++) {
+             Product product = listed.get(i);
+             if (products.get(product.getProductId()) == product) {
+                 action.accept(product);
+             }
+         }
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.FOR_EACH_PRODUCT, start);
+     }
+ }
+
+ // Visit every transaction in recording order without copying the log
+ public void forEachTransaction(Consumer<? super Transaction> action) {
+     long start = System.nanoTime();
+     lock.readLock().lock();
+     try {
+         transactions.forEach(action);
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.FOR_EACH_TRANSACTION, start);
+     }
+ }
+
+ // Visit up to max transactions starting at index from, under the read lock; returns the index after the
+ // last one visited (the log only grows, so a caller can continue from there after releasing the lock)
+ public int forEachTransaction(int from, int max, Consumer<? super Transaction> action) {
+     long start = System.nanoTime();
+     lock.readLock().lock();
+     try {
+         int to = (int) Math.min(transactions.size(), (long) from + max);
+         for (int i = from; i < to; i++) {
+             action.accept(transactions.get(i));
+         }
+         return Math.max(from, to);
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.FOR_EACH_TRANSACTION, start);
+     }
  }
 
  // Search products by name (case-insensitive, partial match)
  public List<Product> searchProductsByName(String searchTerm) {
+     long start = System.nanoTime();
      String lowerCaseSearchTerm = searchTerm.toLowerCase();
-     return products.values().stream() // Use Java Stream API for filtering
-             .filter(p -> p.getName().toLowerCase().contains(lowerCaseSearchTerm))
-             .collect(Collectors.toList()); // Collect results into a new List
+     lock.readLock().lock();
+     try {
+         List<Product> results = products.values().stream() // Use Java Stream API for filtering
+                 .filter(p -> p.getName().toLowerCase().contains(lowerCaseSearchTerm))
+                 .collect(Collectors.toList()); // Collect results into a new List
+         metrics.recordSearchResults(results.size());
+         return results;
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.SEARCH_BY_NAME, start);
+     }
+ }
+
+ // Top matches for a prefix of a product ID or of any word in the name, best first
+ public List<Product> autocomplete(String prefix, int limit, ProductAutocomplete.Ranking ranking) {
+     long start = metrics.startTimer(InventoryMetrics.Operation.AUTOCOMPLETE);
+     lock.readLock().lock();
+     try {
+         List<Product> results = autocomplete.complete(prefix, limit, ranking);
+         metrics.recordSearchResults(results.size());
+         return results;
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.AUTOCOMPLETE, start);
+     }
  }
 
- // Filter products by category
+ // Products whose stock is at or below their reorder point, with suggested order quantities
+ public List<ReorderSuggestion> getReplenishmentPlan() {
+     long start = System.nanoTime();
+     lock.readLock().lock();
+     try {
+         return forecaster.plan(products.values()).stream()
+                 .filter(ReorderSuggestion::needsReorder)
+                 .collect(Collectors.toList());
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.REPLENISHMENT_PLAN, start);
+     }
+ }
+
+ // Reorder figures for a single product (null if not found)
+ public ReorderSuggestion getReorderSuggestion(String productId) {
+     long start = System.nanoTime();
+     lock.readLock().lock();
+     try {
+         Product product = products.get(productId);
+         return product != null ? forecaster.suggest(product) : null;
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.REORDER_SUGGESTION, start);
+     }
+ }
+
+ // Filter products by category (case-insensitive via dictionary keys: one integer comparison per product)
  public List<Product> filterProductsByCategory(String category) {
-     String lowerCaseCategory = category.toLowerCase();
-     return products.values().stream()
-             .filter(p -> p.getCategory().toLowerCase().equals(lowerCaseCategory))
-             .collect(Collectors.toList());
+     long start = System.nanoTime();
+     int categoryKey = AttributeDictionary.global().lookupKey(category);
+     List<Product> results = new ArrayList<>(); // Stays empty if no product has ever used this category
+     if (categoryKey != AttributeDictionary.NO_CODE) {
+         lock.readLock().lock();
+         try {
+             results = products.values().stream()
+                     .filter(p -> p.getCategoryKey() == categoryKey)
+                     .collect(Collectors.toList());
+         } finally {
+             lock.readLock().unlock();
+         }
+     }
+     metrics.recordFilterResults(results.size());
+     metrics.record(InventoryMetrics.Operation.FILTER_BY_CATEGORY, start);
+     return results;
+ }
+
+ // Filter laptops by processor (case-insensitive)
+ public List<Laptop> filterLaptopsByProcessor(String processor) {
+     long start = System.nanoTime();
+     int processorKey = AttributeDictionary.global().lookupKey(processor);
+     List<Laptop> results = new ArrayList<>();
+     if (processorKey != AttributeDictionary.NO_CODE) {
+         lock.readLock().lock();
+         try {
+             results = products.values().stream()
+                     .filter(p -> p instanceof Laptop)
+                     .map(p -> (Laptop) p)
+                     .filter(l -> l.getProcessorKey() == processorKey)
+                     .collect(Collectors.toList());
+         } finally {
+             lock.readLock().unlock();
+         }
+     }
+     metrics.recordFilterResults(results.size());
+     metrics.record(InventoryMetrics.Operation.FILTER_LAPTOPS_BY_PROCESSOR, start);
+     return results;
+ }
+
+ // Filter smartphones by operating system (case-insensitive)
+ public List<Smartphone> filterSmartphonesByOperatingSystem(String operatingSystem) {
+     long start = System.nanoTime();
+     int operatingSystemKey = AttributeDictionary.global().lookupKey(operatingSystem);
+     List<Smartphone> results = new ArrayList<>();
+     if (operatingSystemKey != AttributeDictionary.NO_CODE) {
+         lock.readLock().lock();
+         try {
+             results = products.values().stream()
+                     .filter(p -> p instanceof Smartphone)
+                     .map(p -> (Smartphone) p)
+                     .filter(s -> s.getOperatingSystemKey() == operatingSystemKey)
+                     .collect(Collectors.toList());
+         } finally {
+             lock.readLock().unlock();
+         }
+     }
+     metrics.recordFilterResults(results.size());
+     metrics.record(InventoryMetrics.Operation.FILTER_SMARTPHONES_BY_OS, start);
+     return results;
  }
 
  // CORRECTED METHOD: Get all unique categories from products
  public Set<String> getAllCategories() {
-     return products.values().stream()
-             .map(Product::getCategory) // Get the category string for each product
-             .collect(Collectors.toSet()); // Collect these strings into a Set to ensure uniqueness
+     long start = System.nanoTime();
+     AttributeDictionary dictionary = AttributeDictionary.global();
+     lock.readLock().lock();
+     try {
+         return products.values().stream()
+                 .mapToInt(Product::getCategoryCode) // Get the category code for each product
+                 .distinct()                         // Deduplicate on integers before decoding
+                 .mapToObj(dictionary::decode)       // Original spelling for display
+                 .collect(Collectors.toSet()); // Collect these strings into a Set to ensure uniqueness
+     } finally {
+         lock.readLock().unlock();
+         metrics.record(InventoryMetrics.Operation.GET_ALL_CATEGORIES, start);
+     }
  }
 }
@@ -0,0 +1,171 @@
+package com.InventoryManagement;
+
+//InventoryEvent.java
+/**
+ * One inventory mutation as seen by {@link ChangeStream} consumers.
+ *
+ * Instances are pre-allocated ring buffer slots that get overwritten as the stream wraps,
+ * so a consumer must copy whatever it needs inside its handler and never keep the event.
+ * For PRODUCT_ADDED/PRODUCT_UPDATED the product's attributes are captured at publish time,
+ * so consumers (e.g. replication) can read them without touching the live product.
+ * A BULK_REPRICE event carries every new price of one repricing run and has no single product.
+ */
+public class InventoryEvent {
+ public enum Type {
+     PRODUCT_ADDED, PRODUCT_UPDATED, PRODUCT_DELETED, STOCK_IN, STOCK_OUT, BULK_REPRICE
+ }
+
+ private Type type;
+ private String productId;
+ private Product product;    // The product as stored in the inventory (its live state may have moved on)
+ private int quantity;       // Units moved for STOCK_IN/STOCK_OUT, 0 otherwise
+ private int stockAfter;     // Product quantity right after the mutation
+ private double unitCost;    // Cost per unit received for STOCK_IN and PRODUCT_ADDED, 0 otherwise
+ private long timestampMillis;
+ // Attributes captured for PRODUCT_ADDED/PRODUCT_UPDATED (dictionary codes stay plain ints, so nothing is allocated)
+ private String name;
+ private double price;
+ private int categoryCode;
+ private int processorCode;
+ private int ramGB;
+ private int storageGB;
+ private double screenSizeInches;
+ private int cameraMP;
+ private int operatingSystemCode;
+ // BULK_REPRICE only: product IDs and their new prices (parallel arrays, never modified after publishing)
+ private String[] repricedIds;
+ private double[] repricedPrices;
+
+ // Only the stream fills slots
+ void set(Type type, Product product, int quantity, double unitCost, long timestampMillis) {
+     this.type = type;
+     this.productId = product.getProductId();
+     this.product = product;
+     this.quantity = quantity;
+     this.stockAfter = product.getQuantity();
+     this.unitCost = unitCost;
+     this.timestampMillis = timestampMillis;
+     if (type == Type.PRODUCT_ADDED || type == Type.PRODUCT_UPDATED) {
+         this.name = product.getName();
+         this.price = product.getPrice();
+         this.categoryCode = product.getCategoryCode();
+         if (product instanceof Laptop) {
+             Laptop laptop = (Laptop) product;
+             this.processorCode = laptop.getProcessorCode();
+             this.ramGB = laptop.getRamGB();
+             this.storageGB = laptop.getStorageGB();
+         } else if (product instanceof Smartphone) {
+             Smartphone smartphone = (Smartphone) product;
+             this.screenSizeInches = smartphone.getScreenSizeInches();
+             this.cameraMP = smartphone.getCameraMP();
+             this.operatingSystemCode = smartphone.getOperatingSystemCode();
+         }
+     } else {
+         this.name = null; // Don't keep a stale name reachable from the ring
+     }
+     this.repricedIds = null;
+     this.repricedPrices = null;
+ }
+
+ void setRepricing(String[] productIds, double[] newPrices, long timestampMillis) {
+     this.type = Type.BULK_REPRICE;
+     this.productId = null;
+     this.product = null;
+     this.quantity = 0;
+     this.stockAfter = 0;
+     this.unitCost = 0;
+     this.timestampMillis = timestampMillis;
+     this.name = null;
+     this.repricedIds = productIds;
+     this.repricedPrices = newPrices;
+ }
+
+ // Getters
+ public Type getType() {
+     return type;
+ }
+
+ public String getProductId() {
+     return productId;
+ }
+
+ public Product getProduct() {
+     return product;
+ }
+
+ public int getQuantity() {
+     return quantity;
+ }
+
+ public int getStockAfter() {
+     return stockAfter;
+ }
+
+ public double getUnitCost() {
+     return unitCost;
+ }
+
+ public long getTimestampMillis() {
+     return timestampMillis;
+ }
+
+ // Captured attributes below are only meaningful for PRODUCT_ADDED/PRODUCT_UPDATED
+ public String getName() {
+     return name;
+ }
+
+ public double getPrice() {
+     return price;
+ }
+
+ public String getCategory() {
+     return AttributeDictionary.global().decode(categoryCode);
+ }
+
+ // Laptop attributes (product is a Laptop)
+ public String getProcessor() {
+     return AttributeDictionary.global().decode(processorCode);
+ }
+
+ public int getRamGB() {
+     return ramGB;
+ }
+
+ public int getStorageGB() {
+     return storageGB;
+ }
+
+ // Smartphone attributes (product is a Smartphone)
+ public double getScreenSizeInches() {
+     return screenSizeInches;
+ }
+
+ public int getCameraMP() {
+     return cameraMP;
+ }
+
+ public String getOperatingSystem() {
+     return AttributeDictionary.global().decode(operatingSystemCode);
+ }
+
+ // BULK_REPRICE: number of products repriced, and the i-th one's ID and new price
+ public int getRepricedCount() {
+     return repricedIds != null ? repricedIds.length : 0;
+ }
+
+ public String getRepricedProductId(int i) {
+     return repricedIds[i];
+ }
+
+ public double getRepricedPrice(int i) {
+     return repricedPrices[i];
+ }
+
+ @Override
+ public String toString() {
+     if (type == Type.BULK_REPRICE) {
+         return "Event: " + type + ", Products: " + getRepricedCount();
+     }
+     return "Event: " + type + ", Product ID: " + productId + ", Qty: " + quantity + ", Stock after: " + stockAfter;
+ }
+}
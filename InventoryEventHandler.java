@@ -0,0 +1,11 @@
+package com.InventoryManagement;
+
+//InventoryEventHandler.java
+/**
+ * Callback used to drain a {@link ChangeStream.Subscription}.
+ */
+@FunctionalInterface
+public interface InventoryEventHandler {
+ // endOfBatch is true for the last event of the current poll, a good point to flush downstream
+ void onEvent(InventoryEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,288 @@
+package com.InventoryManagement;
+
+//InventoryMetrics.java
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Operation counters and latency histograms for one {@link Inventory}.
+ *
+ * All counters are LongAdders and all histograms are fixed-size {@link Histogram}s,
+ * so recording never takes a lock and memory does not grow with traffic.
+ * A timed call costs two clock reads and two striped adds; the cheapest point reads
+ * (see {@link #SAMPLED_OPERATIONS}) are timed for only one call in {@link #SAMPLE_RATE},
+ * so their call counts are estimates.
+ * The numbers can be read through JMX (see {@link InventoryMetricsMBean}) or
+ * printed periodically as a plain-text dump.
+ */
+public class InventoryMetrics implements InventoryMetricsMBean {
+
+ // Every public Inventory operation that is timed
+ public enum Operation {
+     ADD_PRODUCT, GET_PRODUCT, UPDATE_PRODUCT, UPDATE_LAPTOP, UPDATE_SMARTPHONE, DELETE_PRODUCT,
+     ADD_STOCK, REMOVE_STOCK, GET_ALL_PRODUCTS, GET_ALL_TRANSACTIONS, FOR_EACH_PRODUCT, FOR_EACH_TRANSACTION,
+     SEARCH_BY_NAME, AUTOCOMPLETE, FILTER_BY_CATEGORY, FILTER_LAPTOPS_BY_PROCESSOR, FILTER_SMARTPHONES_BY_OS, GET_ALL_CATEGORIES,
+     REPLENISHMENT_PLAN, REORDER_SUGGESTION, REPRICE, PRICE_HISTORY, VALUATION
+ }
+
+ // Operations so cheap that timing every call would cost about as much as the call itself
+ public static final Set<Operation> SAMPLED_OPERATIONS = EnumSet.of(
+         Operation.GET_PRODUCT, Operation.AUTOCOMPLETE, Operation.PRICE_HISTORY, Operation.VALUATION);
+ public static final int SAMPLE_RATE = 16;            // One call in this many of a sampled operation is timed
+ public static final long NOT_TIMED = Long.MIN_VALUE; // startTimer() result for a call that is not timed
+
+ private static final DateTimeFormatter DUMP_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+ private final Histogram[] operationLatencies = new Histogram[Operation.values().length]; // By ordinal; also the call counts
+ private final Map<Transaction.Type, LongAdder> movementCounts = new EnumMap<>(Transaction.Type.class);
+ private final Map<Transaction.Type, LongAdder> movementUnits = new EnumMap<>(Transaction.Type.class);
+ private final LongAdder insufficientStockFailures = new LongAdder();
+ private final LongAdder duplicateMovements = new LongAdder();
+ private final Histogram searchResultSizes = new Histogram();
+ private final Histogram filterResultSizes = new Histogram();
+ private final LongSupplier catalogueSize;
+ private final LongSupplier transactionLogSize;
+ private final LongSupplier dedupEarlyRotations;
+ private final LongSupplier dedupEffectiveWindowMillis;
+
+ private final long createdNanos = System.nanoTime();
+ private ScheduledExecutorService dumpScheduler; // Created on first startPeriodicDump
+
+ // Gauges are read lazily from the owning Inventory whenever metrics are queried
+ public InventoryMetrics(LongSupplier catalogueSize, LongSupplier transactionLogSize,
+                         LongSupplier dedupEarlyRotations, LongSupplier dedupEffectiveWindowMillis) {
+     this.catalogueSize = catalogueSize;
+     this.transactionLogSize = transactionLogSize;
+     this.dedupEarlyRotations = dedupEarlyRotations;
+     this.dedupEffectiveWindowMillis = dedupEffectiveWindowMillis;
+     for (int i = 0; i < operationLatencies.length; i++) {
+         operationLatencies[i] = new Histogram();
+     }
+     for (Transaction.Type type : Transaction.Type.values()) {
+         movementCounts.put(type, new LongAdder());
+         movementUnits.put(type, new LongAdder());
+     }
+ }
+
+ // --- Recording (called from Inventory on every operation) ---
+
+ // Start time for a call of a sampled operation: System.nanoTime(), or NOT_TIMED for the calls that are skipped
+ public long startTimer(Operation operation) {
+     if (SAMPLED_OPERATIONS.contains(operation) && ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) {
+         return NOT_TIMED;
+     }
+     return System.nanoTime();
+ }
+
+ // Record one call of an operation that started at startNanos (from System.nanoTime() or startTimer())
+ public void record(Operation operation, long startNanos) {
+     if (startNanos != NOT_TIMED) {
+         operationLatencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+     }
+ }
+
+ public void recordMovement(Transaction.Type type, int quantity) {
+     movementCounts.get(type).increment();
+     movementUnits.get(type).add(quantity);
+ }
+
+ public void recordInsufficientStock() {
+     insufficientStockFailures.increment();
+ }
+
+ // A movement retry rejected by its idempotency key
+ public void recordDuplicateMovement() {
+     duplicateMovements.increment();
+ }
+
+ public void recordSearchResults(int size) {
+     searchResultSizes.record(size);
+ }
+
+ public void recordFilterResults(int size) {
+     filterResultSizes.record(size);
+ }
+
+ // --- Reading ---
+
+ // Calls of an operation; estimated from the timed calls for SAMPLED_OPERATIONS
+ public long getOperationCount(Operation operation) {
+     long timed = operationLatencies[operation.ordinal()].getCount();
+     return SAMPLED_OPERATIONS.contains(operation) ? timed * SAMPLE_RATE : timed;
+ }
+
+ // Latencies of the timed calls (only a sample of the calls for SAMPLED_OPERATIONS)
+ public Histogram getOperationLatencies(Operation operation) {
+     return operationLatencies[operation.ordinal()];
+ }
+
+ public Histogram getSearchResultSizes() {
+     return searchResultSizes;
+ }
+
+ public Histogram getFilterResultSizes() {
+     return filterResultSizes;
+ }
+
+ @Override
+ public long getStockInMovements() {
+     return movementCounts.get(Transaction.Type.IN).sum();
+ }
+
+ @Override
+ public long getStockOutMovements() {
+     return movementCounts.get(Transaction.Type.OUT).sum();
+ }
+
+ @Override
+ public long getUnitsIn() {
+     return movementUnits.get(Transaction.Type.IN).sum();
+ }
+
+ @Override
+ public long getUnitsOut() {
+     return movementUnits.get(Transaction.Type.OUT).sum();
+ }
+
+ @Override
+ public long getInsufficientStockFailures() {
+     return insufficientStockFailures.sum();
+ }
+
+ @Override
+ public long getDuplicateMovementsRejected() {
+     return duplicateMovements.sum();
+ }
+
+ @Override
+ public long getDedupEarlyRotations() {
+     return dedupEarlyRotations.getAsLong();
+ }
+
+ @Override
+ public long getDedupEffectiveWindowMillis() {
+     return dedupEffectiveWindowMillis.getAsLong();
+ }
+
+ @Override
+ public long getCatalogueSize() {
+     return catalogueSize.getAsLong();
+ }
+
+ @Override
+ public long getTransactionLogSize() {
+     return transactionLogSize.getAsLong();
+ }
+
+ @Override
+ public double getMeanSearchResultSize() {
+     return searchResultSizes.getMean();
+ }
+
+ @Override
+ public double getMeanFilterResultSize() {
+     return filterResultSizes.getMean();
+ }
+
+ @Override
+ public long getOperationCount(String operation) {
+     return getOperationCount(Operation.valueOf(operation));
+ }
+
+ @Override
+ public double getOperationLatencyMicros(String operation, double percentile) {
+     return getOperationLatencies(Operation.valueOf(operation)).getPercentile(percentile) / 1000.0;
+ }
+
+ // Plain-text snapshot of every metric; movement rates are averages since the metrics were created
+ @Override
+ public String dump() {
+     return dump(new long[] {createdNanos, 0, 0});
+ }
+
+ // As dump(), with movement rates since baseline = {nanoTime, IN movements, OUT movements}, which is
+ // then moved up to now. Each caller keeps its own baseline, so one caller never skews another's rates.
+ private String dump(long[] baseline) {
+     long now = System.nanoTime();
+     long in = getStockInMovements();
+     long out = getStockOutMovements();
+     double seconds = Math.max(1e-9, (now - baseline[0]) / 1e9);
+     double inRate = (in - baseline[1]) / seconds;
+     double outRate = (out - baseline[2]) / seconds;
+     baseline[0] = now;
+     baseline[1] = in;
+     baseline[2] = out;
+
+     StringBuilder sb = new StringBuilder(2048);
+     sb.append("===== Inventory Metrics @ ").append(LocalDateTime.now().format(DUMP_TIME_FORMAT)).append(" =====\n");
+     sb.append(String.format("Catalogue size: %d, Transaction log size: %d%n", getCatalogueSize(), getTransactionLogSize()));
+     sb.append(String.format("Movements IN: %d (%d units, %.1f/s), OUT: %d (%d units, %.1f/s), Insufficient stock: %d, Duplicates rejected: %d%n",
+             in, getUnitsIn(), inRate, out, getUnitsOut(), outRate, getInsufficientStockFailures(),
+             getDuplicateMovementsRejected()));
+     sb.append(String.format("Dedup effective window: %.1fs, early rotations: %d%n",
+             getDedupEffectiveWindowMillis() / 1000.0, getDedupEarlyRotations()));
+     sb.append(String.format("Search results: n=%d mean=%.1f p99=%d, Filter results: n=%d mean=%.1f p99=%d%n",
+             searchResultSizes.getCount(), searchResultSizes.getMean(), searchResultSizes.getPercentile(99),
+             filterResultSizes.getCount(), filterResultSizes.getMean(), filterResultSizes.getPercentile(99)));
+     sb.append(String.format("%-28s %12s %10s %10s %10s %10s%n", "Operation", "Calls", "p50(us)", "p99(us)", "p99.9(us)", "max(us)"));
+     for (Operation operation : Operation.values()) {
+         long calls = getOperationCount(operation);
+         if (calls == 0) {
+             continue; // Keep the dump short: only operations that were used
+         }
+         Histogram latencies = operationLatencies[operation.ordinal()];
+         String name = SAMPLED_OPERATIONS.contains(operation) ? operation + " (1 in " + SAMPLE_RATE + ")" : operation.toString();
+         sb.append(String.format("%-28s %12d %10.1f %10.1f %10.1f %10.1f%n", name, calls,
+                 latencies.getPercentile(50) / 1000.0, latencies.getPercentile(99) / 1000.0,
+                 latencies.getPercentile(99.9) / 1000.0, latencies.getMax() / 1000.0));
+     }
+     return sb.toString();
+ }
+
+ // --- Exposure ---
+
+ // Register with the platform MBean server under com.InventoryManagement:type=InventoryMetrics,name="<name>" (quoted)
+ public boolean registerMBean(String name) {
+     try {
+         ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                 new ObjectName("com.InventoryManagement:type=InventoryMetrics,name=" + ObjectName.quote(name)));
+         return true;
+     } catch (JMException e) {
+         return false; // Already registered or invalid name
+     }
+ }
+
+ // Print a dump to the given stream every period on a daemon thread (replaces any previous schedule);
+ // its movement rates are per second since the previous periodic dump
+ public synchronized void startPeriodicDump(PrintStream out, long period, TimeUnit unit) {
+     stopPeriodicDump();
+     dumpScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+         Thread thread = new Thread(r, "inventory-metrics-dump");
+         thread.setDaemon(true);
+         return thread;
+     });
+     long[] baseline = {System.nanoTime(), getStockInMovements(), getStockOutMovements()}; // Only this schedule moves it
+     dumpScheduler.scheduleAtFixedRate(() -> out.print(dump(baseline)), period, period, unit);
+ }
+
+ public synchronized void stopPeriodicDump() {
+     if (dumpScheduler != null) {
+         dumpScheduler.shutdownNow();
+         dumpScheduler = null;
+     }
+ }
+}
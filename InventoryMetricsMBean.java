@@ -0,0 +1,26 @@
+package com.InventoryManagement;
+
+//InventoryMetricsMBean.java
+/**
+ * JMX management interface for {@link InventoryMetrics}.
+ * Attributes are cumulative since the Inventory was created; operations take an
+ * operation name matching {@link InventoryMetrics.Operation} (e.g. "ADD_STOCK").
+ */
+public interface InventoryMetricsMBean {
+ long getStockInMovements();
+ long getStockOutMovements();
+ long getUnitsIn();
+ long getUnitsOut();
+ long getInsufficientStockFailures();
+ long getDuplicateMovementsRejected();
+ long getDedupEarlyRotations();       // Dedup generations that filled up before the window ended
+ long getDedupEffectiveWindowMillis(); // How long idempotency keys are currently guaranteed to be remembered
+ long getCatalogueSize();
+ long getTransactionLogSize();
+ double getMeanSearchResultSize();
+ double getMeanFilterResultSize();
+
+ long getOperationCount(String operation);
+ double getOperationLatencyMicros(String operation, double percentile);
+ String dump();
+}
@@ -0,0 +1,136 @@
+package com.InventoryManagement;
+
+//InventoryValuation.java
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stock valuation at cost, maintained incrementally on every movement.
+ *
+ * Each product has a {@link CostLedger} (weighted-average cost and FIFO layers). Whenever a ledger
+ * changes, the change in its value is added to running totals for the product's category and for
+ * the whole inventory, so every valuation query is O(1) instead of a pass over the catalogue.
+ * Categories are matched case-insensitively, like {@link Inventory#filterProductsByCategory}.
+ * Totals are running sums of doubles, so they may drift by rounding error (far below a cent).
+ *
+ * Not thread-safe on its own: {@link Inventory} updates it under its write lock and queries it under its read lock.
+ */
+public class InventoryValuation {
+
+ public enum CostMethod {
+     WEIGHTED_AVERAGE, FIFO
+ }
+
+ private static final int AVERAGE = CostMethod.WEIGHTED_AVERAGE.ordinal();
+ private static final int FIFO = CostMethod.FIFO.ordinal();
+
+ private final Map<String, CostLedger> ledgers = new HashMap<>();
+ private final Map<Integer, double[]> categoryTotals = new HashMap<>(); // Category key -> value per method
+ private final double[] totals = new double[2];                        // Value per method over all products
+
+ // --- Queries ---
+
+ public double getTotalValue(CostMethod method) {
+     return totals[method.ordinal()];
+ }
+
+ // 0 for a category without stock
+ public double getCategoryValue(String category, CostMethod method) {
+     double[] values = categoryTotals.get(AttributeDictionary.global().lookupKey(category));
+     return values != null ? values[method.ordinal()] : 0;
+ }
+
+ // Value of every category that has held stock, keyed by the category's first spelling
+ public Map<String, Double> getCategoryValues(CostMethod method) {
+     AttributeDictionary dictionary = AttributeDictionary.global();
+     Map<String, Double> values = new HashMap<>();
+     for (Map.Entry<Integer, double[]> entry : categoryTotals.entrySet()) {
+         values.put(dictionary.decode(entry.getKey()), entry.getValue()[method.ordinal()]);
+     }
+     return values;
+ }
+
+ public double getProductValue(String productId, CostMethod method) {
+     CostLedger ledger = ledgers.get(productId);
+     if (ledger == null) {
+         return 0;
+     }
+     return method == CostMethod.FIFO ? ledger.getFifoValue() : ledger.getAverageValue();
+ }
+
+ // Weighted-average unit cost of the units on hand; the last known one when out of stock (0 if never costed)
+ public double getAverageUnitCost(String productId) {
+     CostLedger ledger = ledgers.get(productId);
+     return ledger != null ? ledger.getAverageCost() : 0;
+ }
+
+ // --- Updates (called by Inventory) ---
+
+ // New product; its opening quantity is received at unitCost (already checked by Inventory)
+ void addProduct(Product product, double unitCost) {
+     CostLedger ledger = new CostLedger();
+     ledgers.put(product.getProductId(), ledger);
+     ledger.receive(product.getQuantity(), unitCost);
+     adjust(product.getCategoryKey(), ledger.getAverageValue(), ledger.getFifoValue());
+ }
+
+ void receive(Product product, int quantity, double unitCost) {
+     CostLedger ledger = ledgers.get(product.getProductId());
+     double average = ledger.getAverageValue();
+     double fifo = ledger.getFifoValue();
+     ledger.receive(quantity, unitCost);
+     adjust(product.getCategoryKey(), ledger.getAverageValue() - average, ledger.getFifoValue() - fifo);
+ }
+
+ // Returns the FIFO cost of the units issued
+ double issue(Product product, int quantity) {
+     CostLedger ledger = ledgers.get(product.getProductId());
+     double average = ledger.getAverageValue();
+     double fifo = ledger.getFifoValue();
+     double cost = ledger.issue(quantity);
+     adjust(product.getCategoryKey(), ledger.getAverageValue() - average, ledger.getFifoValue() - fifo);
+     return cost;
+ }
+
+ // Move the product's value from its old category to its current one
+ void categoryChanged(Product product, int oldCategoryKey) {
+     CostLedger ledger = ledgers.get(product.getProductId());
+     adjust(oldCategoryKey, -ledger.getAverageValue(), -ledger.getFifoValue());
+     adjust(product.getCategoryKey(), ledger.getAverageValue(), ledger.getFifoValue());
+ }
+
+ void removeProduct(Product product) {
+     CostLedger ledger = ledgers.remove(product.getProductId());
+     if (ledger != null) {
+         adjust(product.getCategoryKey(), -ledger.getAverageValue(), -ledger.getFifoValue());
+     }
+ }
+
+ CostLedger getLedger(String productId) {
+     return ledgers.get(productId);
+ }
+
+ // Replace a product's cost state (replication snapshots); false, and nothing changes, if a cost is not valid
+ boolean restoreLedger(Product product, double averageCost, int[] layerQuantities, double[] layerCosts) {
+     CostLedger ledger = ledgers.get(product.getProductId());
+     double average = ledger.getAverageValue();
+     double fifo = ledger.getFifoValue();
+     if (!ledger.restore(averageCost, layerQuantities, layerCosts)) {
+         return false;
+     }
+     adjust(product.getCategoryKey(), ledger.getAverageValue() - average, ledger.getFifoValue() - fifo);
+     return true;
+ }
+
+ private void adjust(int categoryKey, double averageDelta, double fifoDelta) {
+     double[] values = categoryTotals.get(categoryKey);
+     if (values == null) {
+         values = new double[2];
+         categoryTotals.put(categoryKey, values);
+     }
+     values[AVERAGE] += averageDelta;
+     values[FIFO] += fifoDelta;
+     totals[AVERAGE] += averageDelta;
+     totals[FIFO] += fifoDelta;
+ }
+}
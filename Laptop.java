@@ -2,19 +2,28 @@ package com.InventoryManagement;
 
 //Laptop.java
 public class Laptop extends Product {
- private String processor;
+ private int processorCode; // Dictionary code of the processor name
+ private int processorKey;  // Normalized key of the processor name, used for comparisons
  private int ramGB;
  private int storageGB;
 
  public Laptop(String productId, String name, double price, int quantity, String category, String processor, int ramGB, int storageGB) {
      super(productId, name, price, quantity, category); 
+     setProcessor(processor);
      this.ramGB = ramGB;
      this.storageGB = storageGB;
  }
 
  // Specific getters/setters for Laptop
- public String getProcessor() { return processor; }
- public void setProcessor(String processor) { this.processor = processor; }
+ public String getProcessor() { return AttributeDictionary.global().decode(processorCode); }
+ public void setProcessor(String processor) {
+     AttributeDictionary dictionary = AttributeDictionary.global();
+     this.processorCode = dictionary.encode(processor);
+     this.processorKey = dictionary.keyOf(processorCode);
+ }
+
+ public int getProcessorCode() { return processorCode; }
+ public int getProcessorKey() { return processorKey; }
 
  public int getRamGB() { return ramGB; }
  public void setRamGB(int ramGB) { this.ramGB = ramGB; }
@@ -22,8 +31,15 @@ public class Laptop extends Product {
  public int getStorageGB() { return storageGB; }
  public void setStorageGB(int storageGB) { this.storageGB = storageGB; }
 
+ @Override
+ public void appendDetails(StringBuilder sb) {
+     sb.append("Processor: ").append(getProcessor())
+       .append(", RAM: ").append(ramGB)
+       .append("GB, Storage: ").append(storageGB).append("GB");
+ }
+
  @Override
  public String toString() {
-     return super.toString() + ", Processor: " + processor + ", RAM: " + ramGB + "GB, Storage: " + storageGB + "GB";
+     return super.toString() + ", Processor: " + getProcessor() + ", RAM: " + ramGB + "GB, Storage: " + storageGB + "GB";
  }
 }
\ No newline at end of file
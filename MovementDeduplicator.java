@@ -0,0 +1,233 @@
+package com.InventoryManagement;
+
+//MovementDeduplicator.java
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Remembers recent idempotency keys of stock movements so that client retries can be rejected.
+ *
+ * Keys live in two generations (current and previous); the current one becomes the previous one
+ * every window, so a key is remembered for at least one window and at most two. Each generation has
+ * a Bloom filter in front of an exact open-addressing table of keys: most new keys are cleared by the
+ * filter alone, and a filter hit is confirmed against the exact table, so a key is never rejected
+ * by mistake. Memory is fixed by the per-generation capacity, which should be the number of keys
+ * expected in one window: size it with {@link #MovementDeduplicator(Duration, int)} from the peak
+ * movement rate. If a generation fills up before its window ends it is rotated early, which shortens
+ * the window under load above that rate rather than growing without bound; a retry arriving after
+ * the shortened window would be applied twice, so {@link #getEffectiveWindowMillis()} and
+ * {@link #getEarlyRotationCount()} (also in {@link InventoryMetrics}) show when this happens.
+ *
+ * Not thread-safe: {@link Inventory} calls it under its write lock.
+ */
+public class MovementDeduplicator {
+ private static final int BLOOM_BITS_PER_KEY = 10; // ~1% false positives with 4 probes
+ private static final int BLOOM_PROBES = 4;
+
+ private static final int MAX_CAPACITY = 1 << 26;
+
+ private final long windowMillis;
+ private final int capacity; // Keys per generation
+ private final Clock clock;
+ private Generation current;  // Allocated on first use, so inventories that never dedupe pay nothing
+ private Generation previous;
+ private long generationStart;
+ private volatile long effectiveWindowMillis; // How long the last completed generation stayed current, at most the window
+ private volatile long bloomFalsePositives;
+ private volatile long earlyRotations;
+
+ // 2-minute window for up to 2000 keyed movements per second (240k keys per generation, ~13 MB plus the keys)
+ public MovementDeduplicator() {
+     this(Duration.ofMinutes(2), 2000);
+ }
+
+ // Window sized for a peak rate of keyed movements, e.g. (30s, 200000) for 6M keys per generation
+ public MovementDeduplicator(Duration window, int movementsPerSecond) {
+     this(window, capacityFor(window, movementsPerSecond), Clock.systemUTC());
+ }
+
+ public MovementDeduplicator(Duration window, int capacity, Clock clock) {
+     if (window.isZero() || window.isNegative() || capacity < 1 || capacity > MAX_CAPACITY) {
+         throw new IllegalArgumentException("Window must be positive and capacity between 1 and 2^26");
+     }
+     this.windowMillis = window.toMillis();
+     this.effectiveWindowMillis = windowMillis;
+     this.capacity = capacity;
+     this.clock = clock;
+ }
+
+ private static int capacityFor(Duration window, int movementsPerSecond) {
+     if (window.isZero() || window.isNegative() || movementsPerSecond < 1) {
+         throw new IllegalArgumentException("Window and rate must be positive");
+     }
+     double keys = Math.ceil(window.toMillis() / 1000.0 * movementsPerSecond);
+     if (keys > MAX_CAPACITY) {
+         throw new IllegalArgumentException("A " + window.getSeconds() + "s window at " + movementsPerSecond
+                 + " movements/s needs more than 2^26 keys per generation; shorten the window");
+     }
+     return (int) keys;
+ }
+
+ // True if key was recorded within the window: O(1)
+ public boolean isDuplicate(String key) {
+     if (current == null) {
+         return false;
+     }
+     rotateIfExpired(clock.millis());
+     long hash = hash(key);
+     return current.contains(key, hash) || previous.contains(key, hash);
+ }
+
+ // Remember key (call once the movement it identifies has been applied): O(1) amortized
+ public void record(String key) {
+     long now = clock.millis();
+     if (current == null) {
+         current = new Generation(capacity);
+         previous = new Generation(capacity);
+         generationStart = now;
+     } else {
+         rotateIfExpired(now);
+     }
+     if (current.size >= capacity) {
+         rotate(now); // Full before the window ended: trade window length for fixed memory
+         earlyRotations++;
+     }
+     current.insert(key, hash(key));
+ }
+
+ // Filter hits that the exact table turned out not to contain
+ public long getBloomFalsePositiveCount() {
+     return bloomFalsePositives;
+ }
+
+ // Generations retired early because they filled up within the window
+ public long getEarlyRotationCount() {
+     return earlyRotations;
+ }
+
+ // Configured window
+ public long getWindowMillis() {
+     return windowMillis;
+ }
+
+ // Shortest time a key is currently guaranteed to be remembered: the configured window, or less if the
+ // last generation filled up early. A retry arriving later than this may be applied twice.
+ public long getEffectiveWindowMillis() {
+     return effectiveWindowMillis;
+ }
+
+ public int getCapacity() {
+     return capacity;
+ }
+
+ private void rotateIfExpired(long now) {
+     long age = now - generationStart;
+     if (age >= 2 * windowMillis) {
+         current.clear(); // Both generations are older than the window
+         previous.clear();
+         generationStart = now;
+         effectiveWindowMillis = windowMillis;
+     } else if (age >= windowMillis) {
+         rotate(now);
+     }
+ }
+
+ private void rotate(long now) {
+     effectiveWindowMillis = Math.min(windowMillis, now - generationStart);
+     Generation retired = previous;
+     retired.clear();
+     previous = current;
+     current = retired;
+     generationStart = now;
+ }
+
+ // 64-bit FNV-1a over the chars, then a murmur3 finalizer to spread the bits for the probes
+ private static long hash(String key) {
+     long h = 0xcbf29ce484222325L;
+     for (int i = 0; i < key.length(); i++) {
+         h ^= key.charAt(i);
+         h *= 0x100000001b3L;
+     }
+     h ^= h >>> 33;
+     h *= 0xff51afd7ed558ccdL;
+     h ^= h >>> 33;
+     h *= 0xc4ceb9fe1a85ec53L;
+     h ^= h >>> 33;
+     return h;
+ }
+
+ /**
+  * One generation: Bloom filter plus exact linear-probing table, both sized once.
+  */
+ private final class Generation {
+     private final long[] bloom;
+     private final int bloomMask;     // Bit count - 1 (power of two)
+     private final String[] keys;
+     private final long[] hashes;
+     private final int tableMask;     // Slot count - 1 (power of two, at least twice the capacity)
+     private int size;
+
+     Generation(int capacity) {
+         int bloomBits = Integer.highestOneBit(Math.max(64, capacity * BLOOM_BITS_PER_KEY - 1)) << 1;
+         this.bloom = new long[bloomBits >>> 6];
+         this.bloomMask = bloomBits - 1;
+         int slots = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+         this.keys = new String[slots];
+         this.hashes = new long[slots];
+         this.tableMask = slots - 1;
+     }
+
+     boolean contains(String key, long hash) {
+         if (size == 0 || !mightContain(hash)) {
+             return false;
+         }
+         for (int slot = (int) hash & tableMask; keys[slot] != null; slot = (slot + 1) & tableMask) {
+             if (hashes[slot] == hash && keys[slot].equals(key)) {
+                 return true;
+             }
+         }
+         bloomFalsePositives++;
+         return false;
+     }
+
+     void insert(String key, long hash) {
+         int slot = (int) hash & tableMask;
+         while (keys[slot] != null) {
+             if (hashes[slot] == hash && keys[slot].equals(key)) {
+                 return; // Already present
+             }
+             slot = (slot + 1) & tableMask;
+         }
+         keys[slot] = key;
+         hashes[slot] = hash;
+         size++;
+         int h1 = (int) (hash >>> 32);
+         int h2 = (int) hash | 1;
+         for (int i = 0; i < BLOOM_PROBES; i++) {
+             int bit = (h1 + i * h2) & bloomMask;
+             bloom[bit >>> 6] |= 1L << bit;
+         }
+     }
+
+     private boolean mightContain(long hash) {
+         int h1 = (int) (hash >>> 32);
+         int h2 = (int) hash | 1;
+         for (int i = 0; i < BLOOM_PROBES; i++) {
+             int bit = (h1 + i * h2) & bloomMask;
+             if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                 return false;
+             }
+         }
+         return true;
+     }
+
+     void clear() {
+         if (size > 0) {
+             Arrays.fill(bloom, 0);
+             Arrays.fill(keys, null);
+             size = 0; // Stale hashes are harmless: a slot only counts when its key is non-null
+         }
+     }
+ }
+}
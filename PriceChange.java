@@ -0,0 +1,57 @@
+package com.InventoryManagement;
+
+//PriceChange.java
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One entry of a product's price history. {@link Inventory} keeps each product's entries
+ * chained newest-first, so recording a change costs one small object. Only the latest
+ * {@link Inventory#PRICE_HISTORY_DEPTH} changes per product are kept, and history is local to
+ * one Inventory (replication snapshots don't carry it).
+ */
+public class PriceChange {
+ private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+ private final double oldPrice;
+ private final double newPrice;
+ private final long timestampMillis;
+ private final String reason; // e.g. "Manual update" or the rules of a repricing run
+ PriceChange previous;         // Older change of the same product, or null (cut when the chain is trimmed)
+ int depth;                    // Entries in the chain from this one back, kept current for the newest entry
+
+ PriceChange(double oldPrice, double newPrice, long timestampMillis, String reason, PriceChange previous) {
+     this.oldPrice = oldPrice;
+     this.newPrice = newPrice;
+     this.timestampMillis = timestampMillis;
+     this.reason = reason;
+     this.previous = previous;
+     this.depth = previous == null ? 1 : previous.depth + 1;
+ }
+
+ // Getters
+ public double getOldPrice() {
+     return oldPrice;
+ }
+
+ public double getNewPrice() {
+     return newPrice;
+ }
+
+ public long getTimestampMillis() {
+     return timestampMillis;
+ }
+
+ public String getReason() {
+     return reason;
+ }
+
+ @Override
+ public String toString() {
+     LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault());
+     return "Price: " + String.format("%.2f -> %.2f", oldPrice, newPrice)
+             + ", Time: " + time.format(DATE_FORMAT) + ", Reason: " + reason;
+ }
+}
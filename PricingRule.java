@@ -0,0 +1,79 @@
+package com.InventoryManagement;
+
+//PricingRule.java
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * One repricing rule: which products it applies to and how it changes their price.
+ * Rules are evaluated in parallel, so conditions and adjustments must be side-effect free.
+ *
+ * Example: new PricingRule("+5% on Electronics", PricingRule.inCategory("Electronics"), PricingRule.percentChange(5))
+ */
+public class PricingRule {
+ private final String description;
+ private final Predicate<? super Product> condition;
+ private final DoubleUnaryOperator adjustment; // Current price -> new price
+
+ public PricingRule(String description, Predicate<? super Product> condition, DoubleUnaryOperator adjustment) {
+     this.description = description;
+     this.condition = condition;
+     this.adjustment = adjustment;
+ }
+
+ public String getDescription() {
+     return description;
+ }
+
+ public boolean appliesTo(Product product) {
+     return condition.test(product);
+ }
+
+ public double apply(double price) {
+     return adjustment.applyAsDouble(price);
+ }
+
+ // --- Conditions ---
+
+ public static Predicate<Product> allProducts() {
+     return product -> true;
+ }
+
+ // Case-insensitive category match, compared on dictionary keys
+ public static Predicate<Product> inCategory(String category) {
+     int categoryKey = AttributeDictionary.global().lookupKey(category);
+     return product -> categoryKey != AttributeDictionary.NO_CODE && product.getCategoryKey() == categoryKey;
+ }
+
+ public static Predicate<Product> laptopsWithRamAtLeast(int ramGB) {
+     return product -> product instanceof Laptop && ((Laptop) product).getRamGB() >= ramGB;
+ }
+
+ public static Predicate<Product> smartphonesWithOperatingSystem(String os) {
+     int osKey = AttributeDictionary.global().lookupKey(os);
+     return product -> osKey != AttributeDictionary.NO_CODE && product instanceof Smartphone
+             && ((Smartphone) product).getOperatingSystemKey() == osKey;
+ }
+
+ // --- Adjustments ---
+
+ // e.g. 5 for +5%, -10 for a 10% discount
+ public static DoubleUnaryOperator percentChange(double percent) {
+     double factor = 1 + percent / 100.0;
+     return price -> price * factor;
+ }
+
+ // Charm pricing: keep the whole amount and end in .99 (12.30 -> 12.99)
+ public static DoubleUnaryOperator roundToNinetyNine() {
+     return price -> Math.floor(price) + 0.99;
+ }
+
+ public static DoubleUnaryOperator setPrice(double newPrice) {
+     return price -> newPrice;
+ }
+
+ @Override
+ public String toString() {
+     return description;
+ }
+}
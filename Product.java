@@ -6,9 +6,10 @@ import java.util.Objects;
 public class Product {
  private String productId;
  private String name;
- private double price;
+ private volatile double price; // Written under Inventory's write lock, but read by callers holding no lock
  private int quantity;
- private String category; // e.g., "Electronics", "Accessories"
+ private int categoryCode; // Dictionary code of the category, e.g., "Electronics", "Accessories"
+ private int categoryKey;  // Normalized (case-insensitive) key of the category, used for comparisons
 
  // Constructor
  public Product(String productId, String name, double price, int quantity, String category) {
@@ -16,7 +17,7 @@ public class Product {
      this.name = name;
      this.price = price;
      this.quantity = quantity;
-     this.category = category;
+     setCategory(category);
  }
 
  // Getters 
@@ -37,7 +38,15 @@ public class Product {
  }
 
  public String getCategory() {
-     return category;
+     return AttributeDictionary.global().decode(categoryCode); // Original spelling for display
+ }
+
+ public int getCategoryCode() {
+     return categoryCode;
+ }
+
+ public int getCategoryKey() {
+     return categoryKey;
  }
 
  // Setters 
@@ -58,7 +67,9 @@ public class Product {
  }
 
  public void setCategory(String category) {
-     this.category = category;
+     AttributeDictionary dictionary = AttributeDictionary.global();
+     this.categoryCode = dictionary.encode(category);
+     this.categoryKey = dictionary.keyOf(categoryCode);
  }
 
  // Method to update quantity (business logic encapsulated within the object)
@@ -76,9 +87,13 @@ public class Product {
      return false; // Not enough stock
  }
 
+ // Type-specific details for table views; generic products have none (Polymorphism: overridden by subclasses)
+ public void appendDetails(StringBuilder sb) {
+ }
+
  @Override
  public String toString() {
-     return "ID: " + productId + ", Name: " + name + ", Price: $" + String.format("%.2f", price) + ", Qty: " + quantity + ", Category: " + category;
+     return "ID: " + productId + ", Name: " + name + ", Price: $" + String.format("%.2f", price) + ", Qty: " + quantity + ", Category: " + getCategory();
  }
 
  @Override
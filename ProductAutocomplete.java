@@ -0,0 +1,565 @@
+package com.InventoryManagement;
+
+//ProductAutocomplete.java
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Prefix completion over product IDs and lower-case name words, kept in a compressed radix trie.
+ *
+ * Every trie node stores an upper bound of the best score in its subtree (one per ranking), and
+ * nodes where many products share a key keep a max segment tree over those products. A query walks
+ * to the node matching the prefix and then does a best-first search, so the top-K matches are found
+ * by visiting only a few nodes even when the prefix matches a large part of the catalogue.
+ *
+ * Bounds only ever rise eagerly; when a score drops or a product is removed they may stay too high
+ * (still correct, just less selective) until the next full bound refresh, which runs automatically
+ * once enough stale updates have accumulated (amortized O(1) per update).
+ *
+ * The MOVEMENTS ranking counts recent movements with exponential decay. Instead of decaying every
+ * score over time, each movement adds a weight that doubles every half-life (forward decay), which
+ * orders products exactly like their decayed counts at any instant while scores only ever rise.
+ * When weights get large every score is halved the same number of times and the bounds rebuilt.
+ *
+ * Kept consistent by {@link Inventory} on add/update/delete and on every stock movement. Not thread-safe
+ * on its own: Inventory mutates it under its write lock and completes under its read lock (complete() only reads).
+ */
+public class ProductAutocomplete {
+
+ // How matches are ordered
+ public enum Ranking {
+     STOCK,    // Current quantity on hand
+     MOVEMENTS // Recent stock movements (IN and OUT), each counting half as much per elapsed half-life
+ }
+
+ private static final int TREE_THRESHOLD = 8; // Terminals with more products than this get a segment tree
+ private static final Node[] NO_CHILDREN = new Node[0];
+ private static final int RANKINGS = Ranking.values().length;
+ private static final long MOVEMENT_UNIT = 1 << 10;        // Weight of a movement right at the decay base
+ private static final int REBASE_HALF_LIVES = 32;          // Rebase before weights pass MOVEMENT_UNIT * 2^32
+ private static final long MAX_MOVEMENT_SCORE = 1L << 61;  // ...or before any single score gets near overflow
+
+ // One indexed product and where it is stored in the trie
+ private static final class Entry {
+     final Product product;
+     long movements; // Sum of movement weights (see movementWeight)
+     Node[] terminals = new Node[2]; // Terminal nodes of this product's keys
+     int[] slots = new int[2];       // Position of this entry inside each terminal
+     int terminalCount;
+
+     Entry(Product product) {
+         this.product = product;
+     }
+
+     long score(int ranking) {
+         return ranking == 0 ? product.getQuantity() : movements;
+     }
+
+     int indexOf(Node terminal) {
+         for (int i = 0; i < terminalCount; i++) {
+             if (terminals[i] == terminal) {
+                 return i;
+             }
+         }
+         return -1;
+     }
+ }
+
+ private static final class Node {
+     String label;   // Edge label from the parent (empty for the root)
+     Node parent;
+     Node[] children = NO_CHILDREN; // Sorted by first character of the label
+     Entry[] entries;               // Products whose key ends exactly at this node
+     int entryCount;
+     long[][] trees;                // Per ranking: max segment tree over entries (leaves at [capacity + i])
+     final long[] bounds = new long[RANKINGS]; // Upper bound of any score in this subtree
+
+     Node(String label, Node parent) {
+         this.label = label;
+         this.parent = parent;
+         Arrays.fill(bounds, -1);
+     }
+
+     // Best score among this node's own entries
+     long terminalMax(int ranking) {
+         if (trees != null) {
+             return trees[ranking][1];
+         }
+         long max = -1;
+         for (int i = 0; i < entryCount; i++) {
+             max = Math.max(max, entries[i].score(ranking));
+         }
+         return max;
+     }
+ }
+
+ // Search frontier element: a trie node, a segment tree position, or a single entry
+ private static final class Candidate {
+     final long score;
+     final Node node;
+     final int treeIndex;  // > 0 for a segment tree position
+     final Entry entry;    // Non-null for a single product
+
+     Candidate(long score, Node node, int treeIndex, Entry entry) {
+         this.score = score;
+         this.node = node;
+         this.treeIndex = treeIndex;
+         this.entry = entry;
+     }
+ }
+
+ private final Node root = new Node("", null);
+ private final Map<String, Entry> entriesById = new HashMap<>();
+ private int nodeCount = 1;
+ private long staleUpdates; // Score decreases/removals since the last bound refresh
+ private final long halfLifeMillis;
+ private final Clock clock;
+ private long decayBase; // Instant (clock millis) at which a movement weighs MOVEMENT_UNIT
+
+ public ProductAutocomplete() {
+     this(Duration.ofHours(1), Clock.systemUTC());
+ }
+
+ // Custom half-life for the MOVEMENTS ranking
+ public ProductAutocomplete(Duration movementHalfLife, Clock clock) {
+     if (movementHalfLife.toMillis() < 1) {
+         throw new IllegalArgumentException("Movement half-life must be at least 1ms");
+     }
+     this.halfLifeMillis = movementHalfLife.toMillis();
+     this.clock = clock;
+     this.decayBase = clock.millis();
+ }
+
+ // --- Maintenance (called by Inventory) ---
+
+ public void add(Product product) {
+     Entry entry = new Entry(product);
+     if (entriesById.putIfAbsent(product.getProductId(), entry) != null) {
+         return; // Already indexed
+     }
+     for (String key : keysOf(product)) {
+         insert(key, entry);
+     }
+ }
+
+ public void remove(String productId) {
+     Entry entry = entriesById.remove(productId);
+     if (entry == null) {
+         return;
+     }
+     while (entry.terminalCount > 0) {
+         detach(entry, entry.terminalCount - 1);
+     }
+     noteStale();
+ }
+
+ // Re-key a product after its name changed (its ID is unchanged)
+ public void reindex(Product product) {
+     Entry old = entriesById.get(product.getProductId());
+     remove(product.getProductId());
+     add(product);
+     if (old != null) {
+         Entry fresh = entriesById.get(product.getProductId());
+         fresh.movements = old.movements; // Keep the movement ranking across renames
+         refreshScores(fresh, false);
+     }
+ }
+
+ // Call after the product's quantity changed; counts as one movement for the MOVEMENTS ranking
+ public void recordMovement(Product product, boolean stockDecreased) {
+     Entry entry = entriesById.get(product.getProductId());
+     if (entry != null) {
+         entry.movements += movementWeight(entry);
+         refreshScores(entry, stockDecreased);
+     }
+ }
+
+ // MOVEMENT_UNIT * 2^(half-lives since decayBase): older movements weigh relatively less, by exactly the decay
+ private long movementWeight(Entry entry) {
+     long now = clock.millis();
+     if (now - decayBase >= REBASE_HALF_LIVES * halfLifeMillis || entry.movements >= MAX_MOVEMENT_SCORE) {
+         rebase(Math.max(1, (now - decayBase) / halfLifeMillis));
+     }
+     return Math.round(MOVEMENT_UNIT * Math.pow(2, (double) (now - decayBase) / halfLifeMillis));
+ }
+
+ // Move the decay base forward by whole half-lives, halving every movement score as often: O(entries + nodes)
+ private void rebase(long halfLives) {
+     decayBase += halfLives * halfLifeMillis;
+     for (Entry entry : entriesById.values()) {
+         entry.movements = halfLives < Long.SIZE ? entry.movements >> halfLives : 0;
+     }
+     rebuildTrees(root);
+     refreshBounds();
+ }
+
+ public int size() {
+     return entriesById.size();
+ }
+
+ // --- Query ---
+
+ // Top matches for a prefix of a product ID or of any word in the name (case-insensitive)
+ public List<Product> complete(String prefix, int limit, Ranking ranking) {
+     List<Product> results = new ArrayList<>();
+     Node locus = locate(prefix.trim().toLowerCase());
+     if (locus == null || limit <= 0) {
+         return results;
+     }
+     int r = ranking.ordinal();
+     PriorityQueue<Candidate> frontier = new PriorityQueue<>((a, b) -> Long.compare(b.score, a.score));
+     Set<Entry> seen = new HashSet<>(); // A product can match through its ID and several name words
+     frontier.add(new Candidate(locus.bounds[r], locus, 0, null));
+     while (!frontier.isEmpty() && results.size() < limit) {
+         Candidate top = frontier.poll();
+         if (top.entry != null) {
+             if (seen.add(top.entry)) {
+                 results.add(top.entry.product);
+             }
+         } else if (top.treeIndex > 0) {
+             expandTree(frontier, top.node, top.treeIndex, r);
+         } else {
+             expandNode(frontier, top.node, r);
+         }
+     }
+     return results;
+ }
+
+ private void expandNode(PriorityQueue<Candidate> frontier, Node node, int r) {
+     if (node.trees != null) {
+         frontier.add(new Candidate(node.trees[r][1], node, 1, null));
+     } else {
+         for (int i = 0; i < node.entryCount; i++) {
+             frontier.add(new Candidate(node.entries[i].score(r), node, 0, node.entries[i]));
+         }
+     }
+     for (Node child : node.children) {
+         frontier.add(new Candidate(child.bounds[r], child, 0, null));
+     }
+ }
+
+ private void expandTree(PriorityQueue<Candidate> frontier, Node node, int index, int r) {
+     long[] tree = node.trees[r];
+     int capacity = node.entries.length;
+     if (index >= capacity) {
+         frontier.add(new Candidate(tree[index], node, 0, node.entries[index - capacity]));
+         return;
+     }
+     for (int child = index * 2; child <= index * 2 + 1; child++) {
+         if (tree[child] >= 0) { // Empty slots hold -1
+             frontier.add(new Candidate(tree[child], node, child, null));
+         }
+     }
+ }
+
+ // Node whose subtree holds exactly the keys starting with prefix (null if none)
+ private Node locate(String prefix) {
+     Node node = root;
+     int i = 0;
+     while (i < prefix.length()) {
+         Node child = findChild(node, prefix.charAt(i));
+         if (child == null) {
+             return null;
+         }
+         int length = Math.min(child.label.length(), prefix.length() - i);
+         if (!child.label.regionMatches(0, prefix, i, length)) {
+             return null;
+         }
+         i += length;
+         node = child;
+     }
+     return node;
+ }
+
+ // --- Trie structure ---
+
+ // Lower-case product ID plus every lower-case word (run of letters/digits) of the name
+ private static Set<String> keysOf(Product product) {
+     Set<String> keys = new LinkedHashSet<>();
+     String id = product.getProductId().toLowerCase();
+     if (!id.isEmpty()) { // An empty ID is not a completion target
+         keys.add(id);
+     }
+     String name = product.getName().toLowerCase();
+     int start = -1;
+     for (int i = 0; i <= name.length(); i++) {
+         boolean wordChar = i < name.length() && Character.isLetterOrDigit(name.charAt(i));
+         if (wordChar && start < 0) {
+             start = i;
+         } else if (!wordChar && start >= 0) {
+             keys.add(name.substring(start, i));
+             start = -1;
+         }
+     }
+     return keys;
+ }
+
+ private void insert(String key, Entry entry) {
+     Node node = root;
+     int i = 0;
+     while (i < key.length()) {
+         Node child = findChild(node, key.charAt(i));
+         if (child == null) {
+             Node leaf = new Node(key.substring(i), node);
+             addChild(node, leaf);
+             node = leaf;
+             break;
+         }
+         int common = commonPrefix(child.label, key, i);
+         if (common < child.label.length()) {
+             child = split(child, common);
+         }
+         i += common;
+         node = child;
+     }
+     attach(node, entry);
+ }
+
+ // Split node's label after `at` chars; returns the new upper node that takes node's place
+ private Node split(Node node, int at) {
+     Node upper = new Node(node.label.substring(0, at), node.parent);
+     replaceChild(node.parent, node, upper);
+     node.label = node.label.substring(at);
+     node.parent = upper;
+     upper.children = new Node[] {node};
+     System.arraycopy(node.bounds, 0, upper.bounds, 0, RANKINGS);
+     nodeCount++;
+     return upper;
+ }
+
+ private void attach(Node node, Entry entry) {
+     if (node.entries == null) {
+         node.entries = new Entry[1];
+     } else if (node.entryCount == node.entries.length) {
+         node.entries = Arrays.copyOf(node.entries, node.entryCount * 2);
+         node.trees = null; // Rebuilt below for the new capacity
+     }
+     int slot = node.entryCount++;
+     node.entries[slot] = entry;
+     if (entry.terminalCount == entry.terminals.length) {
+         entry.terminals = Arrays.copyOf(entry.terminals, entry.terminalCount * 2);
+         entry.slots = Arrays.copyOf(entry.slots, entry.terminalCount * 2);
+     }
+     entry.terminals[entry.terminalCount] = node;
+     entry.slots[entry.terminalCount] = slot;
+     entry.terminalCount++;
+
+     if (node.trees == null && node.entryCount > TREE_THRESHOLD) {
+         buildTrees(node);
+     } else if (node.trees != null) {
+         updateLeaf(node, slot);
+     }
+     for (int r = 0; r < RANKINGS; r++) {
+         raise(node, r, entry.score(r));
+     }
+ }
+
+ // Remove the entry from its i-th terminal, keeping the terminal's entries packed
+ private void detach(Entry entry, int i) {
+     Node node = entry.terminals[i];
+     int slot = entry.slots[i];
+     int last = --node.entryCount;
+     if (slot != last) {
+         Entry moved = node.entries[last];
+         node.entries[slot] = moved;
+         moved.slots[moved.indexOf(node)] = slot;
+     }
+     node.entries[last] = null;
+     if (node.trees != null) {
+         updateLeaf(node, slot);
+         updateLeaf(node, last);
+     }
+     entry.terminalCount--;
+     entry.terminals[i] = entry.terminals[entry.terminalCount];
+     entry.slots[i] = entry.slots[entry.terminalCount];
+     entry.terminals[entry.terminalCount] = null;
+     prune(node);
+ }
+
+ // Drop nodes that no longer lead anywhere and merge chains left with a single child
+ private void prune(Node node) {
+     if (node == root || node.entryCount > 0) {
+         return;
+     }
+     Node parent = node.parent;
+     if (node.children.length == 0) {
+         removeChild(parent, node);
+         nodeCount--;
+         if (parent != root && parent.entryCount == 0 && parent.children.length == 1) {
+             mergeWithChild(parent);
+         }
+     } else if (node.children.length == 1) {
+         mergeWithChild(node);
+     }
+ }
+
+ // Replace an entry-less node by its only child, concatenating labels
+ private void mergeWithChild(Node node) {
+     Node child = node.children[0];
+     child.label = node.label + child.label;
+     child.parent = node.parent;
+     replaceChild(node.parent, node, child);
+     nodeCount--;
+ }
+
+ private static Node findChild(Node node, char first) {
+     Node[] children = node.children;
+     int low = 0;
+     int high = children.length - 1;
+     while (low <= high) {
+         int mid = (low + high) >>> 1;
+         char c = children[mid].label.charAt(0);
+         if (c < first) {
+             low = mid + 1;
+         } else if (c > first) {
+             high = mid - 1;
+         } else {
+             return children[mid];
+         }
+     }
+     return null;
+ }
+
+ private void addChild(Node parent, Node child) {
+     Node[] children = parent.children;
+     char first = child.label.charAt(0);
+     int at = 0;
+     while (at < children.length && children[at].label.charAt(0) < first) {
+         at++;
+     }
+     Node[] grown = new Node[children.length + 1];
+     System.arraycopy(children, 0, grown, 0, at);
+     grown[at] = child;
+     System.arraycopy(children, at, grown, at + 1, children.length - at);
+     parent.children = grown;
+     nodeCount++;
+ }
+
+ private static void removeChild(Node parent, Node child) {
+     Node[] children = parent.children;
+     Node[] shrunk = new Node[children.length - 1];
+     int j = 0;
+     for (Node c : children) {
+         if (c != child) {
+             shrunk[j++] = c;
+         }
+     }
+     parent.children = shrunk;
+ }
+
+ // Swap in a node with the same first label character
+ private static void replaceChild(Node parent, Node oldChild, Node newChild) {
+     Node[] children = parent.children;
+     for (int i = 0; i < children.length; i++) {
+         if (children[i] == oldChild) {
+             children[i] = newChild;
+             return;
+         }
+     }
+ }
+
+ private static int commonPrefix(String label, String key, int offset) {
+     int max = Math.min(label.length(), key.length() - offset);
+     int i = 0;
+     while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+         i++;
+     }
+     return i;
+ }
+
+ // --- Scores and bounds ---
+
+ private void refreshScores(Entry entry, boolean decreased) {
+     for (int i = 0; i < entry.terminalCount; i++) {
+         Node node = entry.terminals[i];
+         if (node.trees != null) {
+             updateLeaf(node, entry.slots[i]);
+         }
+         for (int r = 0; r < RANKINGS; r++) {
+             raise(node, r, entry.score(r));
+         }
+     }
+     if (decreased) {
+         noteStale();
+     }
+ }
+
+ // Lift bounds from node up to the root; stops as soon as an ancestor already covers the score
+ private static void raise(Node node, int r, long score) {
+     for (Node n = node; n != null && n.bounds[r] < score; n = n.parent) {
+         n.bounds[r] = score;
+     }
+ }
+
+ private static void buildTrees(Node node) {
+     int capacity = node.entries.length;
+     node.trees = new long[RANKINGS][2 * capacity];
+     for (int r = 0; r < RANKINGS; r++) {
+         long[] tree = node.trees[r];
+         for (int i = 0; i < capacity; i++) {
+             tree[capacity + i] = i < node.entryCount ? node.entries[i].score(r) : -1;
+         }
+         for (int i = capacity - 1; i >= 1; i--) {
+             tree[i] = Math.max(tree[2 * i], tree[2 * i + 1]);
+         }
+     }
+ }
+
+ private static void rebuildTrees(Node node) {
+     if (node.trees != null) {
+         buildTrees(node);
+     }
+     for (Node child : node.children) {
+         rebuildTrees(child);
+     }
+ }
+
+ private static void updateLeaf(Node node, int slot) {
+     int capacity = node.entries.length;
+     for (int r = 0; r < RANKINGS; r++) {
+         long[] tree = node.trees[r];
+         int i = capacity + slot;
+         tree[i] = slot < node.entryCount ? node.entries[slot].score(r) : -1;
+         for (i >>>= 1; i >= 1; i >>>= 1) {
+             long max = Math.max(tree[2 * i], tree[2 * i + 1]);
+             if (tree[i] == max) {
+                 break; // Ancestors are unaffected
+             }
+             tree[i] = max;
+         }
+     }
+ }
+
+ private void noteStale() {
+     if (++staleUpdates > Math.max(1024, nodeCount)) {
+         refreshBounds();
+     }
+ }
+
+ // Recompute every bound exactly (O(nodes)); run automatically, amortized over stale updates
+ public void refreshBounds() {
+     refreshBounds(root);
+     staleUpdates = 0;
+ }
+
+ private static void refreshBounds(Node node) {
+     for (int r = 0; r < RANKINGS; r++) {
+         node.bounds[r] = node.terminalMax(r);
+     }
+     for (Node child : node.children) {
+         refreshBounds(child);
+         for (int r = 0; r < RANKINGS; r++) {
+             node.bounds[r] = Math.max(node.bounds[r], child.bounds[r]);
+         }
+     }
+ }
+}
@@ -0,0 +1,66 @@
+package com.InventoryManagement;
+
+//ReorderSuggestion.java
+/**
+ * Replenishment figures for one product, computed by {@link DemandForecaster}.
+ * Demand figures are per forecasting period (one day by default).
+ */
+public class ReorderSuggestion {
+ private final String productId;
+ private final int currentStock;
+ private final double demandRate;      // Smoothed demand per period
+ private final double demandStdDev;    // Smoothed standard deviation of demand per period
+ private final double reorderPoint;    // Order when stock falls to or below this level
+ private final double orderUpToLevel;  // Target stock level after ordering
+ private final int suggestedQuantity;  // Units to order now (0 if stock is above the reorder point)
+
+ public ReorderSuggestion(String productId, int currentStock, double demandRate, double demandStdDev,
+                          double reorderPoint, double orderUpToLevel, int suggestedQuantity) {
+     this.productId = productId;
+     this.currentStock = currentStock;
+     this.demandRate = demandRate;
+     this.demandStdDev = demandStdDev;
+     this.reorderPoint = reorderPoint;
+     this.orderUpToLevel = orderUpToLevel;
+     this.suggestedQuantity = suggestedQuantity;
+ }
+
+ // Getters
+ public String getProductId() {
+     return productId;
+ }
+
+ public int getCurrentStock() {
+     return currentStock;
+ }
+
+ public double getDemandRate() {
+     return demandRate;
+ }
+
+ public double getDemandStdDev() {
+     return demandStdDev;
+ }
+
+ public double getReorderPoint() {
+     return reorderPoint;
+ }
+
+ public double getOrderUpToLevel() {
+     return orderUpToLevel;
+ }
+
+ public int getSuggestedQuantity() {
+     return suggestedQuantity;
+ }
+
+ public boolean needsReorder() {
+     return suggestedQuantity > 0;
+ }
+
+ @Override
+ public String toString() {
+     return String.format("Product ID: %s, Stock: %d, Demand/period: %.2f (sd %.2f), Reorder point: %.1f, Order-up-to: %.1f, Suggested order: %d",
+             productId, currentStock, demandRate, demandStdDev, reorderPoint, orderUpToLevel, suggestedQuantity);
+ }
+}
@@ -0,0 +1,93 @@
+package com.InventoryManagement;
+
+//ReplicationCloseStress.java
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stress check: closing a {@link ReplicationLeader} while a follower snapshot is being taken
+ * must not leave a change stream subscription behind.
+ *
+ *   java com.InventoryManagement.ReplicationCloseStress [rounds]
+ *
+ * Each round starts a leader over a catalogue large enough that snapshots take a while, with a
+ * small byte budget so followers are resynced often, and keeps a writer running. The leader is
+ * closed at a random moment. A leaked subscription is never polled, so with the BLOCK policy the
+ * writer would stall for good once it fills the small ring; the round fails if the writer stops
+ * making progress or a subscription is still open. Exits with status 1 on the first failure.
+ */
+public class ReplicationCloseStress {
+ private static final int PRODUCTS = 50000;
+ private static final int RING = 1 << 10;
+
+ public static void main(String[] args) throws Exception {
+     int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+     for (int round = 1; round <= rounds; round++) {
+         String failure = runRound();
+         System.out.println("Round " + round + ": " + (failure == null ? "ok" : "FAILED - " + failure));
+         if (failure != null) {
+             System.exit(1);
+         }
+     }
+     System.out.println("All " + rounds + " rounds passed");
+ }
+
+ // null if the round passed, otherwise what went wrong
+ private static String runRound() throws Exception {
+     ThreadLocalRandom random = ThreadLocalRandom.current();
+     Inventory inventory = new Inventory(RING, ChangeStream.BackpressurePolicy.BLOCK);
+     for (int i = 0; i < PRODUCTS; i++) {
+         inventory.addProduct(new Product(String.format("P%07d", i), "Item " + i, 10, 1000, "Electronics"), 5);
+     }
+     ReplicationLeader leader = new ReplicationLeader(inventory, 0, false, 4096);
+     ReplicationFollower[] followers = new ReplicationFollower[2];
+     for (int i = 0; i < followers.length; i++) {
+         followers[i] = new ReplicationFollower("localhost", leader.getPort());
+     }
+
+     AtomicBoolean stop = new AtomicBoolean();
+     LongAdder writes = new LongAdder();
+     Thread writer = new Thread(() -> {
+         ThreadLocalRandom r = ThreadLocalRandom.current();
+         while (!stop.get()) {
+             String id = String.format("P%07d", r.nextInt(PRODUCTS));
+             if (r.nextBoolean()) {
+                 inventory.addStock(id, 1);
+             } else {
+                 inventory.removeStock(id, 1);
+             }
+             writes.increment();
+         }
+     }, "stress-writer");
+     writer.setDaemon(true);
+     writer.start();
+
+     Thread.sleep(random.nextInt(5, 300)); // Lands inside a snapshot in many rounds
+     leader.close();
+     for (ReplicationFollower follower : followers) {
+         follower.close();
+     }
+
+     // The writer has to get well past a full ring after the close
+     long before = writes.sum();
+     long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+     while (writes.sum() - before < 4L * RING && System.nanoTime() < deadline) {
+         Thread.sleep(10);
+     }
+     long progress = writes.sum() - before;
+     stop.set(true);
+     writer.join(TimeUnit.SECONDS.toMillis(1));
+     if (progress < 4L * RING) {
+         return "writer stalled after close (" + progress + " writes in 10s)";
+     }
+     int subscribers = inventory.getChangeStream().getSubscriberCount();
+     deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+     while (subscribers > 0 && System.nanoTime() < deadline) {
+         Thread.sleep(10); // Pump threads notice the close within a poll interval
+         subscribers = inventory.getChangeStream().getSubscriberCount();
+     }
+     return subscribers == 0 ? null : subscribers + " subscription(s) left open";
+ }
+}
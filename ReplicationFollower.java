@@ -0,0 +1,282 @@
+package com.InventoryManagement;
+
+//ReplicationFollower.java
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Read-only replica of a leader's Inventory, kept up to date from a {@link ReplicationLeader}.
+ *
+ * A background thread connects to the leader, loads the snapshot it sends into a fresh Inventory,
+ * then applies each shipped batch through the normal Inventory API. A snapshot is built off to the
+ * side and swapped in whole, so queries never see a half-loaded catalogue. On a sequence gap, a
+ * replica that no longer matches the leader's stock levels, or a dropped connection, the follower
+ * reconnects and starts again from a new snapshot. Connections that end within STABLE_MILLIS double
+ * the reconnect delay (up to MAX_RECONNECT_MILLIS), so a follower the leader keeps dropping does not
+ * keep asking it for snapshots. The transaction log of a replica only holds movements applied since
+ * its last snapshot.
+ */
+public class ReplicationFollower {
+ private static final long RECONNECT_MILLIS = 1000;
+ private static final long MAX_RECONNECT_MILLIS = 30000;
+ private static final long STABLE_MILLIS = 60000; // A connection lasting this long resets the reconnect delay
+
+ private final String host;
+ private final int port;
+ private final CountDownLatch firstSnapshot = new CountDownLatch(1);
+ private volatile Inventory inventory = new Inventory(); // Empty until the first snapshot arrives
+ private volatile Socket socket;
+ private volatile boolean running = true;
+ // Replication progress, written by the apply thread only
+ private volatile long appliedSequence = -1;
+ private volatile long leaderCursor = -1;
+ private volatile long lagMillis;
+ private volatile long snapshotCount;
+ private volatile long appliedEvents;
+ private volatile String lastError; // Why the last connection ended, null if none failed yet
+
+ public ReplicationFollower(String host, int port) {
+     this.host = host;
+     this.port = port;
+     Thread applier = new Thread(this::run, "replication-follower-" + port);
+     applier.setDaemon(true);
+     applier.start();
+ }
+
+ // Wait until the replica holds the leader's catalogue; false on timeout
+ public boolean awaitSnapshot(long timeout, TimeUnit unit) throws InterruptedException {
+     return firstSnapshot.await(timeout, unit);
+ }
+
+ // Read-only queries, served from the local replica
+ public Product getProduct(String productId) {
+     return inventory.getProduct(productId);
+ }
+
+ public List<Product> getAllProducts() {
+     return inventory.getAllProducts();
+ }
+
+ public int getProductCount() {
+     return inventory.getProductCount();
+ }
+
+ public void forEachProduct(Consumer<? super Product> action) {
+     inventory.forEachProduct(action);
+ }
+
+ public List<Product> searchProductsByName(String searchTerm) {
+     return inventory.searchProductsByName(searchTerm);
+ }
+
+ public List<Product> autocomplete(String prefix, int limit, ProductAutocomplete.Ranking ranking) {
+     return inventory.autocomplete(prefix, limit, ranking);
+ }
+
+ public List<Product> filterProductsByCategory(String category) {
+     return inventory.filterProductsByCategory(category);
+ }
+
+ public List<Laptop> filterLaptopsByProcessor(String processor) {
+     return inventory.filterLaptopsByProcessor(processor);
+ }
+
+ public List<Smartphone> filterSmartphonesByOperatingSystem(String os) {
+     return inventory.filterSmartphonesByOperatingSystem(os);
+ }
+
+ public Set<String> getAllCategories() {
+     return inventory.getAllCategories();
+ }
+
+ public double getInventoryValue(InventoryValuation.CostMethod method) {
+     return inventory.getInventoryValue(method);
+ }
+
+ public double getCategoryValue(String category, InventoryValuation.CostMethod method) {
+     return inventory.getCategoryValue(category, method);
+ }
+
+ // Replication lag
+ // Last leader sequence reflected in this replica
+ public long getAppliedSequence() {
+     return appliedSequence;
+ }
+
+ // Latest leader sequence this follower has heard of
+ public long getLeaderCursor() {
+     return leaderCursor;
+ }
+
+ // Events the leader has published that this replica has not applied yet
+ public long getLagEvents() {
+     return Math.max(0, leaderCursor - appliedSequence);
+ }
+
+ // Time between the leader publishing the last applied event and it being applied here
+ // (0 once the follower has caught up; assumes leader and follower clocks agree, e.g. on localhost)
+ public long getLagMillis() {
+     return lagMillis;
+ }
+
+ public long getSnapshotCount() {
+     return snapshotCount;
+ }
+
+ public long getAppliedEventCount() {
+     return appliedEvents;
+ }
+
+ // Why the most recent connection to the leader ended (null if none failed); callers decide whether to report it
+ public String getLastError() {
+     return lastError;
+ }
+
+ public boolean isConnected() {
+     Socket current = socket;
+     return current != null && current.isConnected() && !current.isClosed();
+ }
+
+ public String getStatus() {
+     return "Applied: " + appliedSequence + ", leader: " + leaderCursor + ", lag: " + getLagEvents()
+             + " events / " + lagMillis + " ms, snapshots: " + snapshotCount
+             + (isConnected() ? "" : " (disconnected" + (lastError != null ? ": " + lastError : "") + ")");
+ }
+
+ // Stop replicating; the replica keeps serving its last state
+ public void close() {
+     running = false;
+     closeSocket();
+ }
+
+ private void run() {
+     long reconnectMillis = RECONNECT_MILLIS;
+     while (running) {
+         long connectedAt = System.currentTimeMillis();
+         try (Socket s = new Socket()) {
+             socket = s;
+             s.connect(new InetSocketAddress(host, port));
+             s.setTcpNoDelay(true);
+             replicate(s.getInputStream());
+         } catch (IOException e) {
+             if (running) {
+                 lastError = e.toString();
+             }
+         } finally {
+             socket = null;
+         }
+         if (running) {
+             if (System.currentTimeMillis() - connectedAt >= STABLE_MILLIS) {
+                 reconnectMillis = RECONNECT_MILLIS;
+             }
+             try {
+                 Thread.sleep(reconnectMillis);
+             } catch (InterruptedException e) {
+                 return;
+             }
+             reconnectMillis = Math.min(MAX_RECONNECT_MILLIS, reconnectMillis * 2);
+         }
+     }
+ }
+
+ private void replicate(InputStream raw) throws IOException {
+     DataInputStream handshake = new DataInputStream(raw);
+     if (handshake.readInt() != ReplicationProtocol.MAGIC || handshake.readByte() != ReplicationProtocol.VERSION) {
+         throw new IOException("Not a compatible replication leader");
+     }
+     InputStream body = handshake.readBoolean() ? new InflaterInputStream(raw, new Inflater(), 1 << 16) : raw;
+     DataInputStream in = new DataInputStream(new BufferedInputStream(body, 1 << 16));
+     boolean synced = false;
+     while (running) {
+         byte type = in.readByte();
+         switch (type) {
+             case ReplicationProtocol.SNAPSHOT:
+                 applySnapshot(in);
+                 synced = true;
+                 break;
+             case ReplicationProtocol.BATCH:
+                 if (!synced) {
+                     throw new IOException("Batch before snapshot");
+                 }
+                 applyBatch(in);
+                 break;
+             case ReplicationProtocol.HEARTBEAT:
+                 leaderCursor = in.readLong();
+                 if (appliedSequence >= leaderCursor) {
+                     lagMillis = 0;
+                 }
+                 break;
+             default:
+                 throw new IOException("Unknown message type " + type);
+         }
+     }
+ }
+
+ private void applySnapshot(DataInputStream in) throws IOException {
+     long sequence = in.readLong();
+     int count = in.readInt();
+     Inventory replica = new Inventory();
+     int loaded = 0;
+     while (loaded < count) {
+         byte type = in.readByte();
+         if (type != ReplicationProtocol.SNAPSHOT_CHUNK) {
+             throw new IOException("Incomplete snapshot: " + loaded + " of " + count + " products");
+         }
+         int chunk = in.readInt();
+         for (int i = 0; i < chunk; i++) {
+             Product product = ReplicationProtocol.readProduct(in);
+             replica.addProduct(product);
+             ReplicationProtocol.readCostLedger(in, replica, product.getProductId());
+         }
+         loaded += chunk;
+     }
+     inventory = replica; // Readers switch over to the complete snapshot at once
+     appliedSequence = sequence;
+     leaderCursor = sequence; // A new connection may be to a restarted leader
+     lagMillis = 0;
+     snapshotCount++;
+     firstSnapshot.countDown();
+ }
+
+ private void applyBatch(DataInputStream in) throws IOException {
+     int count = in.readInt();
+     long lastSequence = in.readLong();
+     long cursor = in.readLong();
+     long lastEventMillis = in.readLong();
+     if (lastSequence - count != appliedSequence) {
+         throw new IOException("Sequence gap: expected " + (appliedSequence + 1) + ", got " + (lastSequence - count + 1));
+     }
+     Inventory replica = inventory;
+     for (int i = 0; i < count; i++) {
+         if (!ReplicationProtocol.applyEvent(in, replica)) {
+             throw new IOException("Replica diverged from leader at sequence " + (appliedSequence + i + 1));
+         }
+     }
+     appliedSequence = lastSequence;
+     appliedEvents += count;
+     leaderCursor = Math.max(leaderCursor, cursor);
+     lagMillis = Math.max(0, System.currentTimeMillis() - lastEventMillis);
+ }
+
+ private void closeSocket() {
+     Socket current = socket;
+     if (current != null) {
+         try {
+             current.close();
+         } catch (IOException e) {
+             // Already closed
+         }
+     }
+ }
+}
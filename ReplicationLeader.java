@@ -0,0 +1,421 @@
+package com.InventoryManagement;
+
+//ReplicationLeader.java
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Ships an Inventory's change stream to {@link ReplicationFollower}s over TCP.
+ *
+ * Every follower connection gets its own change stream subscription and two threads:
+ * a pump that drains the subscription in batches and encodes them into frames, and a sender
+ * that writes frames to the socket (optionally deflate-compressed), flushing once the queue is
+ * empty so bursts go out in few packets. A connection always starts with a snapshot that lines up
+ * exactly with the subscription's first event: mutations are paused only while the catalogue and
+ * cost ledgers are copied, and the copy is encoded into chunk frames after they resume. Between
+ * chunks the pump keeps draining the subscription, so writers never wait on a follower whose
+ * snapshot is being encoded; those catch-up events are held and queued right after the last chunk.
+ * A follower whose unsent frames exceed the byte budget is considered lost: its backlog is thrown
+ * away and it is sent a fresh snapshot instead. A follower that needs more than MAX_RESYNCS resyncs
+ * within RESYNC_WINDOW_MILLIS is disconnected, so one that can never keep up cannot pause writers
+ * over and over for snapshots. Neither snapshot frames nor the catch-up queued behind them count
+ * against the budget (a large catalogue would otherwise never fit, or use up resyncs by itself),
+ * but each session holds at most one snapshot: a resync discards the previous one.
+ */
+public class ReplicationLeader {
+ private static final int MAX_BATCH = 1024;                 // Events per BATCH frame
+ private static final long HEARTBEAT_MILLIS = 100;          // Idle interval before a heartbeat is sent
+ private static final long SNAPSHOT_LOCK_WAIT_MILLIS = 100; // Per attempt; retried until it succeeds
+ private static final int SNAPSHOT_CHUNK_PRODUCTS = 4096;   // Products per SNAPSHOT_CHUNK frame
+ private static final int MAX_RESYNCS = 3;                  // Resyncs allowed per window before a follower is dropped
+ private static final long RESYNC_WINDOW_MILLIS = 60000;
+
+ private final Inventory inventory;
+ private final boolean compress;
+ private final long maxQueuedBytes;
+ private final ServerSocket serverSocket;
+ private final List<Session> sessions = new CopyOnWriteArrayList<>();
+ private final AtomicLong droppedFollowers = new AtomicLong(); // Disconnected for needing too many resyncs
+ private volatile boolean running = true;
+ private volatile String lastError; // Most recent accept or session failure, null if none
+
+ // 4MB of unsent frames per follower before it is resynced from a snapshot
+ public ReplicationLeader(Inventory inventory, int port, boolean compress) throws IOException {
+     this(inventory, port, compress, 4L << 20);
+ }
+
+ public ReplicationLeader(Inventory inventory, int port, boolean compress, long maxQueuedBytes) throws IOException {
+     this.inventory = inventory;
+     this.compress = compress;
+     this.maxQueuedBytes = maxQueuedBytes;
+     this.serverSocket = new ServerSocket();
+     serverSocket.setReuseAddress(true);
+     serverSocket.bind(new InetSocketAddress(port));
+     Thread acceptor = new Thread(this::acceptLoop, "replication-accept-" + port);
+     acceptor.setDaemon(true);
+     acceptor.start();
+ }
+
+ public int getPort() {
+     return serverSocket.getLocalPort();
+ }
+
+ public int getFollowerCount() {
+     return sessions.size();
+ }
+
+ public long getDroppedFollowerCount() {
+     return droppedFollowers.get();
+ }
+
+ // Most recent failure accepting or serving a follower (null if none); callers decide whether to report it
+ public String getLastError() {
+     return lastError;
+ }
+
+ // One line per connected follower: address, events not yet encoded, bytes not yet sent, snapshots sent,
+ // and how long writers were paused for the last snapshot
+ public String getStatus() {
+     StringBuilder sb = new StringBuilder();
+     sb.append("Leader cursor: ").append(inventory.getChangeStream().getCursor())
+       .append(", followers: ").append(sessions.size())
+       .append(", dropped for resyncing too often: ").append(droppedFollowers.get());
+     String error = lastError;
+     if (error != null) {
+         sb.append(", last error: ").append(error);
+     }
+     sb.append('\n');
+     for (Session session : sessions) {
+         sb.append("  ").append(session.socket.getRemoteSocketAddress())
+           .append(" - pending events: ").append(session.pendingEvents())
+           .append(", queued bytes: ").append(session.queuedBytes())
+           .append(", snapshots: ").append(session.snapshots)
+           .append(", last snapshot pause: ").append(session.lastPauseMicros).append("us")
+           .append('\n');
+     }
+     return sb.toString();
+ }
+
+ // Stop accepting and disconnect every follower
+ public void close() {
+     running = false;
+     try {
+         serverSocket.close();
+     } catch (IOException e) {
+         // Already closed
+     }
+     for (Session session : sessions) {
+         session.close();
+     }
+ }
+
+ private void acceptLoop() {
+     while (running) {
+         try {
+             Socket socket = serverSocket.accept();
+             socket.setTcpNoDelay(true);
+             Session session = new Session(socket);
+             sessions.add(session);
+             session.start();
+         } catch (IOException e) {
+             if (running) {
+                 lastError = "Accept failed: " + e;
+             }
+         }
+     }
+ }
+
+ /**
+  * One follower connection.
+  */
+ private final class Session implements InventoryEventHandler {
+     private final Socket socket;
+     private final LinkedBlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+     // BATCH/HEARTBEAT bytes queued and sent (or discarded) so far; snapshot frames don't count
+     private final AtomicLong enqueuedBytes = new AtomicLong();
+     private final AtomicLong sentBytes = new AtomicLong();
+     private final ByteArrayOutputStream eventBuffer = new ByteArrayOutputStream(64 * 1024);
+     private final DataOutputStream events = new DataOutputStream(eventBuffer);
+     private volatile ChangeStream.Subscription subscription;
+     private volatile boolean open = true;
+     private volatile long snapshots;
+     private volatile long lastPauseMicros;
+     // Pump-thread state for the batch being encoded and for resync limiting
+     private final long[] resyncTimes = new long[MAX_RESYNCS]; // Ring of the latest resync times
+     private int resyncIndex;
+     private int batchCount;
+     private long lastSequence = -1;
+     private long lastEventMillis;
+     private long lastFrameMillis;
+     private long droppedSeen;
+     private List<byte[]> heldFrames;  // Non-null while a snapshot is encoded: catch-up frames wait here
+     private long catchUpEndBytes;     // enqueuedBytes once the last snapshot's catch-up frames were queued
+
+     Session(Socket socket) {
+         this.socket = socket;
+     }
+
+     void start() {
+         Thread pump = new Thread(this::pumpLoop, "replication-pump-" + socket.getPort());
+         Thread sender = new Thread(this::sendLoop, "replication-send-" + socket.getPort());
+         pump.setDaemon(true);
+         sender.setDaemon(true);
+         pump.start();
+         sender.start();
+     }
+
+     long queuedBytes() {
+         return enqueuedBytes.get() - sentBytes.get();
+     }
+
+     // Unsent bytes that count against the budget: frames queued after the last snapshot's catch-up
+     private long budgetedBacklog() {
+         return enqueuedBytes.get() - Math.max(sentBytes.get(), catchUpEndBytes);
+     }
+
+     long pendingEvents() {
+         ChangeStream.Subscription current = subscription;
+         return current != null ? current.getLag() : 0;
+     }
+
+     private void pumpLoop() {
+         try {
+             snapshot();
+             while (open) {
+                 int polled = subscription.poll(this, MAX_BATCH);
+                 long now = System.currentTimeMillis();
+                 long dropped = inventory.getChangeStream().getDroppedCount();
+                 if (dropped != droppedSeen || budgetedBacklog() > maxQueuedBytes) {
+                     // Events were lost (DROP policy) or the follower is too far behind
+                     if (!allowResync(now)) {
+                         droppedFollowers.incrementAndGet();
+                         close(); // The follower reconnects (with backoff) and starts over
+                         break;
+                     }
+                     snapshot();
+                 } else if (polled == 0) {
+                     if (now - lastFrameMillis >= HEARTBEAT_MILLIS) {
+                         enqueue(heartbeat());
+                     }
+                     LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+                 }
+             }
+         } catch (IOException | InterruptedException | RuntimeException e) {
+             if (open) {
+                 lastError = "Follower " + socket.getRemoteSocketAddress() + " failed: " + e;
+             }
+             close();
+         } finally {
+             closeSubscription(); // The pump is the only thread that creates subscriptions
+         }
+     }
+
+     // Record a resync at now; false if MAX_RESYNCS already happened within the window
+     private boolean allowResync(long now) {
+         long oldest = resyncTimes[resyncIndex];
+         if (oldest != 0 && now - oldest < RESYNC_WINDOW_MILLIS) {
+             return false;
+         }
+         resyncTimes[resyncIndex] = now;
+         resyncIndex = (resyncIndex + 1) % MAX_RESYNCS;
+         return true;
+     }
+
+     // Encode events into the current batch; the frame is finished at the end of each poll
+     @Override
+     public void onEvent(InventoryEvent event, long sequence, boolean endOfBatch) {
+         try {
+             ReplicationProtocol.writeEvent(events, event);
+             batchCount++;
+             lastSequence = sequence;
+             lastEventMillis = event.getTimestampMillis();
+             if (endOfBatch) {
+                 ByteArrayOutputStream frame = new ByteArrayOutputStream(eventBuffer.size() + 32);
+                 DataOutputStream out = new DataOutputStream(frame);
+                 out.writeByte(ReplicationProtocol.BATCH);
+                 out.writeInt(batchCount);
+                 out.writeLong(lastSequence);
+                 out.writeLong(inventory.getChangeStream().getCursor());
+                 out.writeLong(lastEventMillis);
+                 eventBuffer.writeTo(out);
+                 eventBuffer.reset();
+                 batchCount = 0;
+                 enqueue(frame.toByteArray());
+             }
+         } catch (IOException e) {
+             throw new UncheckedIOException(e); // Only possible from in-memory streams if something is badly wrong
+         }
+     }
+
+     private byte[] heartbeat() throws IOException {
+         ByteArrayOutputStream frame = new ByteArrayOutputStream(32);
+         DataOutputStream out = new DataOutputStream(frame);
+         out.writeByte(ReplicationProtocol.HEARTBEAT);
+         out.writeLong(inventory.getChangeStream().getCursor());
+         return frame.toByteArray();
+     }
+
+     // Replace whatever is queued with a snapshot and a new subscription that starts right after it
+     private void snapshot() throws IOException, InterruptedException {
+         ChangeStream.Subscription old = subscription;
+         if (old != null) {
+             old.close(); // Stop gating writers before waiting for them
+         }
+         ChangeStream changeStream = inventory.getChangeStream();
+         ReplicationProtocol.SnapshotCopy[] copy = new ReplicationProtocol.SnapshotCopy[1];
+         long[] sequence = new long[1];
+         boolean[] taken = new boolean[1];
+         while (open && !taken[0]) {
+             // Writers are excluded only while state is copied, so no event can fall between it and the subscription
+             inventory.tryWithMutationsPaused(() -> {
+                 long pauseStart = System.nanoTime();
+                 ReplicationProtocol.SnapshotCopy state = new ReplicationProtocol.SnapshotCopy(inventory.getProductCount());
+                 sequence[0] = changeStream.getCursor();
+                 inventory.forEachProduct(product -> state.add(product, inventory.getCostLedger(product.getProductId())));
+                 copy[0] = state;
+                 droppedSeen = changeStream.getDroppedCount();
+                 subscription = changeStream.subscribe();
+                 lastSequence = subscription.getSequence();
+                 taken[0] = true;
+                 lastPauseMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - pauseStart);
+             }, SNAPSHOT_LOCK_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+         }
+         if (!open) {
+             closeSubscription(); // close() may have run before the new subscription was assigned
+             return;
+         }
+         eventBuffer.reset();
+         batchCount = 0;
+         List<byte[]> stale = new ArrayList<>();
+         frames.drainTo(stale);
+         for (byte[] discarded : stale) {
+             sentBytes.addAndGet(budgeted(discarded));
+         }
+         snapshots++;
+         heldFrames = new ArrayList<>();
+
+         ByteArrayOutputStream header = new ByteArrayOutputStream(16);
+         DataOutputStream out = new DataOutputStream(header);
+         out.writeByte(ReplicationProtocol.SNAPSHOT);
+         out.writeLong(sequence[0]);
+         out.writeInt(copy[0].size());
+         push(header.toByteArray());
+         ByteArrayOutputStream chunk = new ByteArrayOutputStream(1 << 16);
+         out = new DataOutputStream(chunk);
+         for (int from = 0; from < copy[0].size(); from += SNAPSHOT_CHUNK_PRODUCTS) {
+             int to = Math.min(copy[0].size(), from + SNAPSHOT_CHUNK_PRODUCTS);
+             chunk.reset();
+             out.writeByte(ReplicationProtocol.SNAPSHOT_CHUNK);
+             out.writeInt(to - from);
+             for (int i = from; i < to; i++) {
+                 copy[0].write(out, i);
+             }
+             push(chunk.toByteArray());
+             drain(); // Keep the ring moving while the rest is encoded
+         }
+         drain();
+         List<byte[]> catchUp = heldFrames;
+         heldFrames = null;
+         for (byte[] frame : catchUp) {
+             push(frame);
+         }
+         catchUpEndBytes = enqueuedBytes.get();
+     }
+
+     // Poll everything published so far into held catch-up frames
+     private void drain() {
+         while (open && subscription.poll(this, MAX_BATCH) > 0) {
+             // Frames are produced by onEvent
+         }
+     }
+
+     // Queue an event or heartbeat frame, or hold it back while a snapshot is still being encoded
+     private void enqueue(byte[] frame) {
+         if (heldFrames != null) {
+             heldFrames.add(frame);
+         } else {
+             push(frame);
+         }
+     }
+
+     private void push(byte[] frame) {
+         enqueuedBytes.addAndGet(budgeted(frame));
+         frames.add(frame);
+         lastFrameMillis = System.currentTimeMillis();
+     }
+
+     // Size a frame counts against the byte budget; a large catalogue must not trigger a resync by itself
+     private int budgeted(byte[] frame) {
+         return frame[0] == ReplicationProtocol.SNAPSHOT || frame[0] == ReplicationProtocol.SNAPSHOT_CHUNK ? 0 : frame.length;
+     }
+
+     private void sendLoop() {
+         try {
+             OutputStream raw = socket.getOutputStream();
+             DataOutputStream handshake = new DataOutputStream(raw);
+             handshake.writeInt(ReplicationProtocol.MAGIC);
+             handshake.writeByte(ReplicationProtocol.VERSION);
+             handshake.writeBoolean(compress);
+             handshake.flush();
+             OutputStream out = new BufferedOutputStream(raw, 1 << 16);
+             if (compress) {
+                 // syncFlush so every flush hands the follower complete, decodable frames
+                 out = new BufferedOutputStream(
+                         new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED), 1 << 16, true), 1 << 16);
+             }
+             while (open) {
+                 byte[] frame = frames.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                 if (frame == null) {
+                     continue;
+                 }
+                 out.write(frame);
+                 sentBytes.addAndGet(budgeted(frame));
+                 if (frames.isEmpty()) {
+                     out.flush(); // Batch everything that queued up while the last write was in progress
+                 }
+             }
+         } catch (IOException | InterruptedException e) {
+             // Follower went away
+         } finally {
+             close();
+         }
+     }
+
+     void close() {
+         if (!open) {
+             return;
+         }
+         open = false;
+         sessions.remove(this);
+         closeSubscription();
+         try {
+             socket.close();
+         } catch (IOException e) {
+             // Already closed
+         }
+     }
+
+     private void closeSubscription() {
+         ChangeStream.Subscription current = subscription;
+         if (current != null) {
+             current.close();
+         }
+     }
+ }
+}
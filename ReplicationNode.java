@@ -0,0 +1,150 @@
+package com.InventoryManagement;
+
+//ReplicationNode.java
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Command-line entry point for trying replication with several JVMs on one machine.
+ *
+ *   java com.InventoryManagement.ReplicationNode leader 7070 100000 20000 [--no-compress]
+ *   java com.InventoryManagement.ReplicationNode follower localhost 7070 4 30
+ *
+ * The leader loads a synthetic catalogue and applies a steady stream of stock movements and price
+ * changes. Each follower replicates it, then runs a read benchmark and prints its throughput and lag;
+ * the total read capacity is the sum over the followers started side by side.
+ */
+public class ReplicationNode {
+ private static final String[] CATEGORIES = {"Electronics", "Accessories", "Furniture", "Laptops", "Smartphones"};
+ private static final String[] PROCESSORS = {"Intel i5", "Intel i7", "AMD Ryzen 7", "Apple M2"};
+ private static final String[] SYSTEMS = {"Android", "iOS"};
+
+ public static void main(String[] args) throws Exception {
+     if (args.length >= 4 && args[0].equals("leader")) {
+         boolean compress = !(args.length > 4 && args[4].equals("--no-compress"));
+         runLeader(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), compress);
+     } else if (args.length >= 5 && args[0].equals("follower")) {
+         runFollower(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+     } else {
+         System.out.println("Usage: ReplicationNode leader <port> <products> <writesPerSecond> [--no-compress]");
+         System.out.println("       ReplicationNode follower <host> <port> <readerThreads> <seconds>");
+     }
+ }
+
+ private static void runLeader(int port, int productCount, int writesPerSecond, boolean compress) throws IOException {
+     Inventory inventory = new Inventory();
+     for (int i = 0; i < productCount; i++) {
+         inventory.addProduct(sampleProduct(i));
+     }
+     ReplicationLeader leader = new ReplicationLeader(inventory, port, compress);
+     System.out.println("Leader on port " + leader.getPort() + " with " + productCount + " products"
+             + (compress ? " (compressed)" : ""));
+
+     Thread writer = new Thread(() -> {
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, writesPerSecond);
+         long next = System.nanoTime();
+         while (true) {
+             String id = productId(random.nextInt(productCount));
+             int roll = random.nextInt(100);
+             if (roll < 50) {
+                 inventory.addStock(id, 1 + random.nextInt(20));
+             } else if (roll < 98) {
+                 inventory.removeStock(id, 1 + random.nextInt(20));
+             } else {
+                 Product product = inventory.getProduct(id);
+                 inventory.updateProduct(id, product.getName(), 1 + random.nextInt(2000), product.getCategory());
+             }
+             next += intervalNanos;
+             long wait = next - System.nanoTime();
+             if (wait > 0) {
+                 LockSupport.parkNanos(wait); // Pace writes to the requested rate
+             }
+         }
+     }, "leader-writer");
+     writer.setDaemon(true);
+     writer.start();
+
+     while (true) {
+         try {
+             Thread.sleep(5000);
+         } catch (InterruptedException e) {
+             leader.close();
+             return;
+         }
+         System.out.print(leader.getStatus());
+     }
+ }
+
+ private static void runFollower(String host, int port, int readerThreads, int seconds) throws InterruptedException {
+     ReplicationFollower follower = new ReplicationFollower(host, port);
+     if (!follower.awaitSnapshot(60, TimeUnit.SECONDS)) {
+         System.out.println("No snapshot from " + host + ":" + port + " within 60s");
+         return;
+     }
+     List<Product> products = follower.getAllProducts();
+     String[] ids = new String[products.size()];
+     for (int i = 0; i < ids.length; i++) {
+         ids[i] = products.get(i).getProductId();
+     }
+     System.out.println("Replica loaded: " + ids.length + " products. " + follower.getStatus());
+     if (ids.length == 0) {
+         return;
+     }
+
+     LongAdder reads = new LongAdder();
+     long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+     Thread[] readers = new Thread[readerThreads];
+     for (int t = 0; t < readerThreads; t++) {
+         readers[t] = new Thread(() -> {
+             ThreadLocalRandom random = ThreadLocalRandom.current();
+             long done = 0;
+             while (System.nanoTime() < deadline) {
+                 String id = ids[random.nextInt(ids.length)];
+                 if (random.nextInt(100) < 95) {
+                     follower.getProduct(id);
+                 } else {
+                     follower.autocomplete(id.substring(0, Math.min(4, id.length())), 5, ProductAutocomplete.Ranking.STOCK);
+                 }
+                 if (++done % 1024 == 0) {
+                     reads.add(1024);
+                 }
+             }
+             reads.add(done % 1024);
+         }, "follower-reader-" + t);
+         readers[t].start();
+     }
+     for (int s = 0; s < seconds; s++) {
+         Thread.sleep(1000);
+         System.out.println(follower.getStatus());
+     }
+     for (Thread reader : readers) {
+         reader.join();
+     }
+     System.out.printf("Reads: %d in %ds (%.0f reads/s with %d threads)%n",
+             reads.sum(), seconds, reads.sum() / (double) seconds, readerThreads);
+     follower.close();
+ }
+
+ private static String productId(int i) {
+     return String.format("P%07d", i);
+ }
+
+ private static Product sampleProduct(int i) {
+     String id = productId(i);
+     double price = 5 + (i % 1000);
+     int quantity = 1000;
+     switch (i % 4) {
+         case 0:
+             return new Laptop(id, "Laptop Model " + i, price, quantity, "Laptops", PROCESSORS[i % PROCESSORS.length], 16, 512);
+         case 1:
+             return new Smartphone(id, "Phone Model " + i, price, quantity, "Smartphones", 6.1, 48, SYSTEMS[i % SYSTEMS.length]);
+         default:
+             return new Product(id, "Item " + i, price, quantity, CATEGORIES[i % CATEGORIES.length]);
+     }
+ }
+}
@@ -0,0 +1,354 @@
+package com.InventoryManagement;
+
+//ReplicationProtocol.java
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Wire format shared by {@link ReplicationLeader} and {@link ReplicationFollower}.
+ *
+ * A connection starts with an uncompressed handshake (magic, version, compression flag).
+ * Everything after it (optionally inside a deflate stream) is a sequence of messages:
+ *   SNAPSHOT  sequence, product count                          - full state as of sequence follows in chunks
+ *   SNAPSHOT_CHUNK product count, product records
+ *             (each followed by its cost ledger)                 - sent right after SNAPSHOT until the count is reached
+ *   BATCH     event count, last sequence, leader cursor,
+ *             last event time, events                           - consecutive events after the previous message
+ *   HEARTBEAT leader cursor                                     - sent when the leader is idle
+ * Product attributes travel as strings, since dictionary codes are local to each JVM. Strings are
+ * sent as a byte length and UTF-8 bytes, with length -1 for null (categories and attributes may be
+ * null), so no value a product can hold stops the stream.
+ */
+final class ReplicationProtocol {
+ static final int MAGIC = 0x494E5652; // "INVR"
+ static final byte VERSION = 5; // 2: unit costs on movements, cost ledgers in snapshots; 3: chunked snapshots; 4: BULK_REPRICE events; 5: nullable, unlimited strings
+
+ // Message types
+ static final byte SNAPSHOT = 1;
+ static final byte BATCH = 2;
+ static final byte HEARTBEAT = 3;
+ static final byte SNAPSHOT_CHUNK = 4;
+
+ // Product record kinds
+ private static final byte KIND_PRODUCT = 0;
+ private static final byte KIND_LAPTOP = 1;
+ private static final byte KIND_SMARTPHONE = 2;
+
+ private static final int NULL_STRING = -1;
+
+ private static final InventoryEvent.Type[] EVENT_TYPES = InventoryEvent.Type.values();
+
+ private ReplicationProtocol() {
+ }
+
+ // Current state of a live product (caller must keep mutations out while encoding)
+ static void writeProduct(DataOutputStream out, Product product) throws IOException {
+     if (product instanceof Laptop) {
+         Laptop laptop = (Laptop) product;
+         writeCommon(out, KIND_LAPTOP, laptop.getProductId(), laptop.getName(), laptop.getPrice(),
+                 laptop.getQuantity(), laptop.getCategory());
+         writeString(out, laptop.getProcessor());
+         out.writeInt(laptop.getRamGB());
+         out.writeInt(laptop.getStorageGB());
+     } else if (product instanceof Smartphone) {
+         Smartphone smartphone = (Smartphone) product;
+         writeCommon(out, KIND_SMARTPHONE, smartphone.getProductId(), smartphone.getName(), smartphone.getPrice(),
+                 smartphone.getQuantity(), smartphone.getCategory());
+         out.writeDouble(smartphone.getScreenSizeInches());
+         out.writeInt(smartphone.getCameraMP());
+         writeString(out, smartphone.getOperatingSystem());
+     } else {
+         writeCommon(out, KIND_PRODUCT, product.getProductId(), product.getName(), product.getPrice(),
+                 product.getQuantity(), product.getCategory());
+     }
+ }
+
+ // Product state as captured by a PRODUCT_ADDED/PRODUCT_UPDATED event
+ private static void writeProduct(DataOutputStream out, InventoryEvent event) throws IOException {
+     Product product = event.getProduct(); // Only its class is read, which never changes
+     if (product instanceof Laptop) {
+         writeCommon(out, KIND_LAPTOP, event.getProductId(), event.getName(), event.getPrice(),
+                 event.getStockAfter(), event.getCategory());
+         writeString(out, event.getProcessor());
+         out.writeInt(event.getRamGB());
+         out.writeInt(event.getStorageGB());
+     } else if (product instanceof Smartphone) {
+         writeCommon(out, KIND_SMARTPHONE, event.getProductId(), event.getName(), event.getPrice(),
+                 event.getStockAfter(), event.getCategory());
+         out.writeDouble(event.getScreenSizeInches());
+         out.writeInt(event.getCameraMP());
+         writeString(out, event.getOperatingSystem());
+     } else {
+         writeCommon(out, KIND_PRODUCT, event.getProductId(), event.getName(), event.getPrice(),
+                 event.getStockAfter(), event.getCategory());
+     }
+ }
+
+ private static void writeCommon(DataOutputStream out, byte kind, String id, String name, double price,
+                                 int quantity, String category) throws IOException {
+     out.writeByte(kind);
+     writeString(out, id);
+     writeString(out, name);
+     out.writeDouble(price);
+     out.writeInt(quantity);
+     writeString(out, category);
+ }
+
+ // Unlike writeUTF, accepts null and strings of any length
+ private static void writeString(DataOutputStream out, String value) throws IOException {
+     if (value == null) {
+         out.writeInt(NULL_STRING);
+         return;
+     }
+     byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+     out.writeInt(bytes.length);
+     out.write(bytes);
+ }
+
+ private static String readString(DataInputStream in) throws IOException {
+     int length = in.readInt();
+     if (length == NULL_STRING) {
+         return null;
+     }
+     if (length < 0) {
+         throw new IOException("Invalid string length " + length);
+     }
+     byte[] bytes = new byte[length];
+     in.readFully(bytes);
+     return new String(bytes, StandardCharsets.UTF_8);
+ }
+
+ static Product readProduct(DataInputStream in) throws IOException {
+     byte kind = in.readByte();
+     String id = readString(in);
+     String name = readString(in);
+     double price = in.readDouble();
+     int quantity = in.readInt();
+     String category = readString(in);
+     switch (kind) {
+         case KIND_LAPTOP:
+             return new Laptop(id, name, price, quantity, category, readString(in), in.readInt(), in.readInt());
+         case KIND_SMARTPHONE:
+             return new Smartphone(id, name, price, quantity, category, in.readDouble(), in.readInt(), readString(in));
+         case KIND_PRODUCT:
+             return new Product(id, name, price, quantity, category);
+         default:
+             throw new IOException("Unknown product kind " + kind);
+     }
+ }
+
+ // Read a cost ledger and install it for a product already added to inventory
+ static void readCostLedger(DataInputStream in, Inventory inventory, String productId) throws IOException {
+     double averageCost = in.readDouble();
+     int layers = in.readInt();
+     int[] quantities = new int[layers];
+     double[] costs = new double[layers];
+     for (int i = 0; i < layers; i++) {
+         quantities[i] = in.readInt();
+         costs[i] = in.readDouble();
+     }
+     if (!inventory.restoreCostLedger(productId, averageCost, quantities, costs)) {
+         throw new IOException("Invalid cost ledger for " + productId);
+     }
+ }
+
+ static void writeEvent(DataOutputStream out, InventoryEvent event) throws IOException {
+     out.writeByte(event.getType().ordinal());
+     switch (event.getType()) {
+         case PRODUCT_ADDED:
+             writeProduct(out, event);
+             out.writeDouble(event.getUnitCost());
+             break;
+         case PRODUCT_UPDATED:
+             writeProduct(out, event);
+             break;
+         case PRODUCT_DELETED:
+             writeString(out, event.getProductId());
+             break;
+         case STOCK_IN:
+             writeString(out, event.getProductId());
+             out.writeInt(event.getQuantity());
+             out.writeInt(event.getStockAfter());
+             out.writeDouble(event.getUnitCost());
+             break;
+         case STOCK_OUT:
+             writeString(out, event.getProductId());
+             out.writeInt(event.getQuantity());
+             out.writeInt(event.getStockAfter());
+             break;
+         default: // BULK_REPRICE
+             out.writeInt(event.getRepricedCount());
+             for (int i = 0; i < event.getRepricedCount(); i++) {
+                 writeString(out, event.getRepricedProductId(i));
+                 out.writeDouble(event.getRepricedPrice(i));
+             }
+             break;
+     }
+ }
+
+ // Decode one event and apply it to inventory; false if the replica no longer matches the leader
+ static boolean applyEvent(DataInputStream in, Inventory inventory) throws IOException {
+     int ordinal = in.readUnsignedByte();
+     if (ordinal >= EVENT_TYPES.length) {
+         throw new IOException("Unknown event type " + ordinal);
+     }
+     switch (EVENT_TYPES[ordinal]) {
+         case PRODUCT_ADDED: {
+             Product product = readProduct(in);
+             return inventory.addProduct(product, in.readDouble());
+         }
+         case PRODUCT_UPDATED:
+             return applyUpdate(readProduct(in), inventory);
+         case PRODUCT_DELETED:
+             return inventory.deleteProduct(readString(in));
+         case STOCK_IN: {
+             String id = readString(in);
+             int quantity = in.readInt();
+             int stockAfter = in.readInt();
+             double unitCost = in.readDouble();
+             return inventory.addStock(id, quantity, unitCost) && inventory.getProduct(id).getQuantity() == stockAfter;
+         }
+         case STOCK_OUT: {
+             String id = readString(in);
+             int quantity = in.readInt();
+             int stockAfter = in.readInt();
+             return inventory.removeStock(id, quantity) && inventory.getProduct(id).getQuantity() == stockAfter;
+         }
+         default: { // BULK_REPRICE
+             String[] ids = new String[in.readInt()];
+             double[] prices = new double[ids.length];
+             for (int i = 0; i < ids.length; i++) {
+                 ids[i] = readString(in);
+                 prices[i] = in.readDouble();
+             }
+             return inventory.applyRepricing(ids, prices);
+         }
+     }
+ }
+
+ /**
+  * Flat copy of products and their cost ledgers for a snapshot: taken while mutations are paused,
+  * encoded after they resume. Everything goes into a few primitive arrays, so the copy allocates
+  * nothing per product and the pause stays short. Attribute codes are decoded while encoding,
+  * which is safe because dictionary codes never change meaning.
+  */
+ static final class SnapshotCopy {
+     private final byte[] kinds;
+     private final String[] ids;
+     private final String[] names;
+     private final double[] prices;
+     private final int[] quantities;
+     private final int[] categoryCodes;
+     private final int[] attributeCodes; // Processor or operating system
+     private final int[] ramOrCamera;    // Laptop RAM (GB) or smartphone camera (MP)
+     private final int[] storage;        // Laptop storage (GB)
+     private final double[] screenSizes; // Smartphone screen (inches)
+     private final double[] averageCosts;
+     private final int[] layerEnds;      // Product i owns layers layerEnds[i - 1] until layerEnds[i]
+     private int[] layerQuantities;
+     private double[] layerCosts;
+     private int layerCount;
+     private int size;
+
+     SnapshotCopy(int capacity) {
+         kinds = new byte[capacity];
+         ids = new String[capacity];
+         names = new String[capacity];
+         prices = new double[capacity];
+         quantities = new int[capacity];
+         categoryCodes = new int[capacity];
+         attributeCodes = new int[capacity];
+         ramOrCamera = new int[capacity];
+         storage = new int[capacity];
+         screenSizes = new double[capacity];
+         averageCosts = new double[capacity];
+         layerEnds = new int[capacity];
+         layerQuantities = new int[Math.max(16, capacity)];
+         layerCosts = new double[layerQuantities.length];
+     }
+
+     int size() {
+         return size;
+     }
+
+     // Copy one product and its ledger (caller must keep mutations out)
+     void add(Product product, CostLedger ledger) {
+         int i = size++;
+         ids[i] = product.getProductId();
+         names[i] = product.getName();
+         prices[i] = product.getPrice();
+         quantities[i] = product.getQuantity();
+         categoryCodes[i] = product.getCategoryCode();
+         if (product instanceof Laptop) {
+             Laptop laptop = (Laptop) product;
+             kinds[i] = KIND_LAPTOP;
+             attributeCodes[i] = laptop.getProcessorCode();
+             ramOrCamera[i] = laptop.getRamGB();
+             storage[i] = laptop.getStorageGB();
+         } else if (product instanceof Smartphone) {
+             Smartphone smartphone = (Smartphone) product;
+             kinds[i] = KIND_SMARTPHONE;
+             attributeCodes[i] = smartphone.getOperatingSystemCode();
+             ramOrCamera[i] = smartphone.getCameraMP();
+             screenSizes[i] = smartphone.getScreenSizeInches();
+         } else {
+             kinds[i] = KIND_PRODUCT;
+         }
+         averageCosts[i] = ledger.getAverageCost();
+         int layers = ledger.getLayerCount();
+         if (layerCount + layers > layerQuantities.length) {
+             int grown = Math.max(layerQuantities.length * 2, layerCount + layers);
+             layerQuantities = Arrays.copyOf(layerQuantities, grown);
+             layerCosts = Arrays.copyOf(layerCosts, grown);
+         }
+         for (int l = 0; l < layers; l++) {
+             layerQuantities[layerCount] = ledger.getLayerQuantity(l);
+             layerCosts[layerCount] = ledger.getLayerCost(l);
+             layerCount++;
+         }
+         layerEnds[i] = layerCount;
+     }
+
+     // Product record i followed by its cost ledger, in the same format as readProduct and readCostLedger expect
+     void write(DataOutputStream out, int i) throws IOException {
+         AttributeDictionary dictionary = AttributeDictionary.global();
+         writeCommon(out, kinds[i], ids[i], names[i], prices[i], quantities[i], dictionary.decode(categoryCodes[i]));
+         if (kinds[i] == KIND_LAPTOP) {
+             writeString(out, dictionary.decode(attributeCodes[i]));
+             out.writeInt(ramOrCamera[i]);
+             out.writeInt(storage[i]);
+         } else if (kinds[i] == KIND_SMARTPHONE) {
+             out.writeDouble(screenSizes[i]);
+             out.writeInt(ramOrCamera[i]);
+             writeString(out, dictionary.decode(attributeCodes[i]));
+         }
+         out.writeDouble(averageCosts[i]);
+         int from = i == 0 ? 0 : layerEnds[i - 1];
+         out.writeInt(layerEnds[i] - from);
+         for (int l = from; l < layerEnds[i]; l++) {
+             out.writeInt(layerQuantities[l]);
+             out.writeDouble(layerCosts[l]);
+         }
+     }
+ }
+
+ private static boolean applyUpdate(Product update, Inventory inventory) {
+     String id = update.getProductId();
+     if (!inventory.updateProduct(id, update.getName(), update.getPrice(), update.getCategory())) {
+         return false;
+     }
+     if (update instanceof Laptop) {
+         Laptop laptop = (Laptop) update;
+         return inventory.updateLaptop(id, laptop.getProcessor(), laptop.getRamGB(), laptop.getStorageGB());
+     }
+     if (update instanceof Smartphone) {
+         Smartphone smartphone = (Smartphone) update;
+         return inventory.updateSmartphone(id, smartphone.getScreenSizeInches(), smartphone.getCameraMP(),
+                 smartphone.getOperatingSystem());
+     }
+     return true;
+ }
+}
@@ -0,0 +1,96 @@
+package com.InventoryManagement;
+
+//RepricingEngine.java
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Stages the new prices of a repricing run.
+ *
+ * Every product passes through the rules in order (each matching rule adjusts the price left by
+ * the previous one) on the common fork-join pool. Nothing is modified here: {@link Inventory}
+ * publishes the staged prices under its write lock, so the run becomes visible all at once to reads
+ * under its read lock (see {@link Inventory#reprice} for reads of live Product objects outside it).
+ */
+final class RepricingEngine {
+
+ // Products whose price changes, with their new prices (parallel arrays)
+ static final class StagedPrices {
+     final Product[] products;
+     final String[] productIds; // IDs of products, ready to be published in one BULK_REPRICE event
+     final double[] newPrices;
+     final int matched;       // Products at least one rule applied to
+     final int invalid;       // Products left unchanged because the rules gave a negative or non-finite price
+
+     StagedPrices(Product[] products, String[] productIds, double[] newPrices, int matched, int invalid) {
+         this.products = products;
+         this.productIds = productIds;
+         this.newPrices = newPrices;
+         this.matched = matched;
+         this.invalid = invalid;
+     }
+ }
+
+ private static final byte UNMATCHED = 0;
+ private static final byte UNCHANGED = 1;
+ private static final byte CHANGED = 2;
+ private static final byte INVALID = 3;
+
+ private RepricingEngine() {
+ }
+
+ // Caller must keep the catalogue from changing while this runs
+ static StagedPrices stage(Collection<Product> catalogue, List<PricingRule> rules) {
+     Product[] all = catalogue.toArray(new Product[0]);
+     PricingRule[] ruleArray = rules.toArray(new PricingRule[0]);
+     double[] prices = new double[all.length];
+     byte[] outcome = new byte[all.length];
+     IntStream.range(0, all.length).parallel().forEach(i -> {
+         Product product = all[i];
+         double oldPrice = product.getPrice();
+         double price = oldPrice;
+         boolean matched = false;
+         for (PricingRule rule : ruleArray) {
+             if (rule.appliesTo(product)) {
+                 price = rule.apply(price);
+                 matched = true;
+             }
+         }
+         if (!matched) {
+             outcome[i] = UNMATCHED;
+         } else if (Double.isNaN(price) || Double.isInfinite(price) || price < 0) {
+             outcome[i] = INVALID;
+         } else {
+             price = Math.round(price * 100) / 100.0; // Whole cents
+             prices[i] = price;
+             outcome[i] = price != oldPrice ? CHANGED : UNCHANGED;
+         }
+     });
+
+     int matched = 0;
+     int invalid = 0;
+     int changed = 0;
+     for (byte o : outcome) {
+         if (o != UNMATCHED) {
+             matched++;
+         }
+         if (o == INVALID) {
+             invalid++;
+         } else if (o == CHANGED) {
+             changed++;
+         }
+     }
+     Product[] products = new Product[changed];
+     String[] productIds = new String[changed];
+     double[] newPrices = new double[changed];
+     for (int i = 0, j = 0; i < all.length; i++) {
+         if (outcome[i] == CHANGED) {
+             products[j] = all[i];
+             productIds[j] = all[i].getProductId();
+             newPrices[j++] = prices[i];
+         }
+     }
+     return new StagedPrices(products, productIds, newPrices, matched, invalid);
+ }
+}
@@ -0,0 +1,48 @@
+package com.InventoryManagement;
+
+//RepricingResult.java
+/**
+ * Summary of one {@link Inventory#reprice} run.
+ */
+public class RepricingResult {
+ private final int productsMatched;  // Products at least one rule applied to
+ private final int pricesChanged;    // Products whose price actually changed
+ private final int invalidPrices;    // Products left unchanged because the rules gave a negative or non-finite price
+ private final boolean restaged;     // The catalogue changed during staging, so prices were recomputed before publishing
+ private final long elapsedMillis;
+
+ public RepricingResult(int productsMatched, int pricesChanged, int invalidPrices, boolean restaged, long elapsedMillis) {
+     this.productsMatched = productsMatched;
+     this.pricesChanged = pricesChanged;
+     this.invalidPrices = invalidPrices;
+     this.restaged = restaged;
+     this.elapsedMillis = elapsedMillis;
+ }
+
+ // Getters
+ public int getProductsMatched() {
+     return productsMatched;
+ }
+
+ public int getPricesChanged() {
+     return pricesChanged;
+ }
+
+ public int getInvalidPrices() {
+     return invalidPrices;
+ }
+
+ public boolean isRestaged() {
+     return restaged;
+ }
+
+ public long getElapsedMillis() {
+     return elapsedMillis;
+ }
+
+ @Override
+ public String toString() {
+     return "Matched: " + productsMatched + ", Changed: " + pricesChanged + ", Invalid: " + invalidPrices
+             + ", Time: " + elapsedMillis + "ms" + (restaged ? " (restaged)" : "");
+ }
+}
@@ -4,13 +4,14 @@ package com.InventoryManagement;
 public class Smartphone extends Product {
  private double screenSizeInches;
  private int cameraMP;
- private String operatingSystem; // e.g., "Android", "iOS"
+ private int operatingSystemCode; // Dictionary code of the OS, e.g., "Android", "iOS"
+ private int operatingSystemKey;  // Normalized key of the OS, used for comparisons
 
  public Smartphone(String productId, String name, double price, int quantity, String category, double screenSizeInches, int cameraMP, String operatingSystem) {
      super(productId, name, price, quantity, category); // Call parent (Product) constructor
      this.screenSizeInches = screenSizeInches;
      this.cameraMP = cameraMP;
-     this.operatingSystem = operatingSystem;
+     setOperatingSystem(operatingSystem);
  }
 
  // Specific getters/setters for Smartphone
@@ -20,11 +21,26 @@ public class Smartphone extends Product {
  public int getCameraMP() { return cameraMP; }
  public void setCameraMP(int cameraMP) { this.cameraMP = cameraMP; }
 
- public String getOperatingSystem() { return operatingSystem; }
- public void setOperatingSystem(String operatingSystem) { this.operatingSystem = operatingSystem; }
+ public String getOperatingSystem() { return AttributeDictionary.global().decode(operatingSystemCode); }
+ public void setOperatingSystem(String operatingSystem) {
+     AttributeDictionary dictionary = AttributeDictionary.global();
+     this.operatingSystemCode = dictionary.encode(operatingSystem);
+     this.operatingSystemKey = dictionary.keyOf(operatingSystemCode);
+ }
+
+ public int getOperatingSystemCode() { return operatingSystemCode; }
+ public int getOperatingSystemKey() { return operatingSystemKey; }
+
+ @Override
+ public void appendDetails(StringBuilder sb) {
+     sb.append("Screen: ");
+     TableRenderer.appendFixed(sb, screenSizeInches, 1);
+     sb.append("in, Camera: ").append(cameraMP)
+       .append("MP, OS: ").append(getOperatingSystem());
+ }
 
  @Override
  public String toString() {
-     return super.toString() + ", Screen: " + screenSizeInches + "\", Camera: " + cameraMP + "MP, OS: " + operatingSystem;
+     return super.toString() + ", Screen: " + screenSizeInches + "\", Camera: " + cameraMP + "MP, OS: " + getOperatingSystem();
  }
 }
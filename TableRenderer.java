@@ -0,0 +1,217 @@
+package com.InventoryManagement;
+
+//TableRenderer.java
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Renders product and transaction tables for the console views.
+ *
+ * Rows are built in one reusable StringBuilder (no String.format / Formatter per row)
+ * and written to the output in large chunks, so listing millions of rows is bounded
+ * by the terminal rather than by formatting. Type-specific columns come from
+ * {@link Product#appendDetails(StringBuilder)}, so new product types need no changes here.
+ * Views of a whole inventory render SLICE_ROWS rows at a time under its read lock and write them
+ * out after releasing it, so a slow terminal never holds up writers.
+ *
+ * Not thread-safe: use one renderer per output thread.
+ */
+public class TableRenderer {
+ private static final int BUFFER_CHARS = 1 << 16; // Flush to the writer in 64K-char chunks
+ private static final int SLICE_ROWS = 512;         // Rows rendered per read-lock hold (roughly one chunk)
+ private static final String PRODUCT_SEPARATOR =
+         "---------------------------------------------------------------------------------------------------";
+ private static final String TRANSACTION_SEPARATOR =
+         "--------------------------------------------------------------------";
+ private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L};
+
+ private final Writer out;
+ private final StringBuilder buffer = new StringBuilder(BUFFER_CHARS + 1024);
+ private final char[] chunk = new char[BUFFER_CHARS + 1024]; // Reused to hand the buffer to the writer without copies
+
+ // Render to System.out
+ public TableRenderer() {
+     this(System.out);
+ }
+
+ public TableRenderer(OutputStream out) {
+     this.out = new OutputStreamWriter(out);
+ }
+
+ // Render every product in the inventory as of the call (rows deleted meanwhile are skipped); returns rows written.
+ // Only product references are copied, so the read lock can be released between slices.
+ public int renderProducts(Inventory inventory) {
+     writeProductHeader();
+     List<Product> listed = inventory.getAllProducts();
+     int[] rows = new int[1];
+     for (int from = 0; from < listed.size(); from += SLICE_ROWS) {
+         inventory.forEachProduct(listed, from, Math.min(listed.size(), from + SLICE_ROWS), product -> {
+             writeProductRow(product);
+             rows[0]++;
+         });
+         flushIfFull(); // Lock released: output may block as long as it likes
+     }
+     flush();
+     return rows[0];
+ }
+
+ // Render the given products (e.g. search or filter results); returns rows written
+ public int renderProducts(Iterable<? extends Product> products) {
+     writeProductHeader();
+     int rows = 0;
+     for (Product product : products) {
+         writeProductRow(product);
+         flushIfFull();
+         rows++;
+     }
+     flush();
+     return rows;
+ }
+
+ // Render every transaction recorded so far, streamed from the log a slice at a time; returns rows written
+ public int renderTransactions(Inventory inventory) {
+     buffer.append(String.format("%-10s %-15s %-10s %-10s %-20s\n", "Trans ID", "Product ID", "Type", "Quantity", "Date"));
+     buffer.append(TRANSACTION_SEPARATOR).append('\n');
+     int end = inventory.getTransactionCount(); // Movements recorded while rendering are not listed
+     int rows = 0;
+     while (rows < end) {
+         rows = inventory.forEachTransaction(rows, Math.min(SLICE_ROWS, end - rows), this::writeTransactionRow);
+         flushIfFull(); // Lock released: output may block as long as it likes
+     }
+     flush();
+     return rows;
+ }
+
+ private void writeProductHeader() {
+     buffer.append(String.format("%-10s %-25s %-10s %-10s %-15s %s\n", "ID", "Name", "Price", "Qty", "Category", "Specific Details"));
+     buffer.append(PRODUCT_SEPARATOR).append('\n');
+ }
+
+ // Same layout as "%-10s %-25s %-10.2f %-10d %-15s %s\n"
+ private void writeProductRow(Product product) {
+     int mark = buffer.length();
+     buffer.append(product.getProductId());
+     pad(mark, 10);
+     mark = buffer.append(' ').length();
+     buffer.append(product.getName());
+     pad(mark, 25);
+     mark = buffer.append(' ').length();
+     appendFixed(buffer, product.getPrice(), 2);
+     pad(mark, 10);
+     mark = buffer.append(' ').length();
+     buffer.append(product.getQuantity());
+     pad(mark, 10);
+     mark = buffer.append(' ').length();
+     buffer.append(product.getCategory());
+     pad(mark, 15);
+     buffer.append(' ');
+     product.appendDetails(buffer);
+     buffer.append('\n');
+ }
+
+ // Same layout as "%-10s %-15s %-10s %-10d %-20s\n" with the ID shortened to 8 chars + "..."
+ private void writeTransactionRow(Transaction transaction) {
+     int mark = buffer.length();
+     buffer.append(transaction.getTransactionId(), 0, 8).append("...");
+     pad(mark, 10);
+     mark = buffer.append(' ').length();
+     buffer.append(transaction.getProductId());
+     pad(mark, 15);
+     mark = buffer.append(' ').length();
+     buffer.append(transaction.getType().name());
+     pad(mark, 10);
+     mark = buffer.append(' ').length();
+     buffer.append(transaction.getQuantity());
+     pad(mark, 10);
+     mark = buffer.append(' ').length();
+     appendDateTime(buffer, transaction.getTransactionDate());
+     pad(mark, 20);
+     buffer.append('\n');
+ }
+
+ // Left-justify the column that started at mark by appending spaces up to width (like "%-Ns")
+ private void pad(int mark, int width) {
+     for (int written = buffer.length() - mark; written < width; written++) {
+         buffer.append(' ');
+     }
+ }
+
+ private void flushIfFull() {
+     if (buffer.length() >= BUFFER_CHARS) {
+         drain();
+     }
+ }
+
+ private void drain() {
+     int length = buffer.length();
+     char[] target = length <= chunk.length ? chunk : new char[length]; // Only a pathological row exceeds the chunk
+     buffer.getChars(0, length, target, 0);
+     buffer.setLength(0);
+     try {
+         out.write(target, 0, length);
+     } catch (IOException e) {
+         throw new UncheckedIOException(e);
+     }
+ }
+
+ // Push everything rendered so far to the output (the underlying stream is never closed)
+ public void flush() {
+     drain();
+     try {
+         out.flush();
+     } catch (IOException e) {
+         throw new UncheckedIOException(e);
+     }
+ }
+
+ // Append value rounded half-up to the given number of decimals, matching String.format("%.Nf")
+ public static void appendFixed(StringBuilder sb, double value, int decimals) {
+     long scale = POWERS_OF_TEN[decimals];
+     if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e15 / scale) {
+         sb.append(String.format("%." + decimals + "f", value)); // Rare: outside the exact long range
+         return;
+     }
+     double exact = Math.abs(value) * scale;
+     double fraction = exact - Math.floor(exact);
+     if (Math.abs(fraction - 0.5) <= 4 * Math.ulp(exact)) {
+         // Formatter rounds the shortest decimal form (1.005 -> 1.01), which the product may land either side of
+         sb.append(String.format("%." + decimals + "f", value));
+         return;
+     }
+     long scaled = Math.round(exact);
+     if (Double.doubleToRawLongBits(value) < 0) {
+         sb.append('-'); // Formatter keeps the sign when the value rounds to zero ("-0.00")
+     }
+     sb.append(scaled / scale);
+     if (decimals > 0) {
+         sb.append('.');
+         long digits = scaled % scale;
+         for (long digit = scale / 10; digit > 0; digit /= 10) {
+             sb.append((char) ('0' + digits / digit % 10));
+         }
+     }
+ }
+
+ // Append as yyyy-MM-dd HH:mm:ss without creating a formatter or intermediate strings
+ static void appendDateTime(StringBuilder sb, LocalDateTime dateTime) {
+     sb.append(dateTime.getYear()).append('-');
+     appendTwoDigits(sb, dateTime.getMonthValue());
+     sb.append('-');
+     appendTwoDigits(sb, dateTime.getDayOfMonth());
+     sb.append(' ');
+     appendTwoDigits(sb, dateTime.getHour());
+     sb.append(':');
+     appendTwoDigits(sb, dateTime.getMinute());
+     sb.append(':');
+     appendTwoDigits(sb, dateTime.getSecond());
+ }
+
+ private static void appendTwoDigits(StringBuilder sb, int value) {
+     sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+ }
+}
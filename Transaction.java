@@ -10,17 +10,25 @@ public class Transaction {
      IN, OUT
  }
 
+ private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"); // Thread-safe, shared
+
  private String transactionId;
  private String productId; // ID of the product involved
  private Type type;        // Type of transaction (IN or OUT)
  private int quantity;     // Quantity of product moved
+ private double unitCost;  // Purchase cost per unit for IN, FIFO cost per unit issued for OUT
  private LocalDateTime transactionDate; // Timestamp of the transaction
 
  public Transaction(String productId, Type type, int quantity) {
+     this(productId, type, quantity, 0);
+ }
+
+ public Transaction(String productId, Type type, int quantity, double unitCost) {
      this.transactionId = UUID.randomUUID().toString(); // Generate unique ID for each transaction
      this.productId = productId;
      this.type = type;
      this.quantity = quantity;
+     this.unitCost = unitCost;
      this.transactionDate = LocalDateTime.now(); // Record current time
  }
 
@@ -41,14 +49,17 @@ public class Transaction {
      return quantity;
  }
 
+ public double getUnitCost() {
+     return unitCost;
+ }
+
  public LocalDateTime getTransactionDate() {
      return transactionDate;
  }
 
  @Override
  public String toString() {
-     DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
      return String.format("Trans ID: %s, Product ID: %s, Type: %s, Qty: %d, Date: %s",
-             transactionId.substring(0, 8) + "...", productId, type, quantity, transactionDate.format(formatter));
+             transactionId.substring(0, 8) + "...", productId, type, quantity, transactionDate.format(DATE_FORMAT));
  }
 }
@@ -0,0 +1,366 @@
+package com.InventoryManagement;
+
+//Workload.java
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A synthetic, replayable inventory workload: a catalogue plus a fixed sequence of operations.
+ *
+ * The catalogue mixes generic products, laptops and smartphones. Operations pick products with
+ * Zipfian popularity (a few best sellers take most of the traffic) and follow this mix:
+ *   50% getProduct, 25% stock movements, 10% name search, 7% autocomplete,
+ *   5% category filter, 3% processor/OS filter.
+ * Stock movements alternate between a selling regime (mostly small OUTs) and short restocking
+ * bursts (mostly large INs), and about 1% of them are scanner retries that repeat the
+ * idempotency key of a recent movement. Everything is derived from the seed, and a workload can
+ * be saved and loaded so the exact same operations can be replayed against another build.
+ */
+public class Workload {
+
+ public enum OpType {
+     GET_PRODUCT, STOCK_IN, STOCK_OUT, SEARCH_BY_NAME, AUTOCOMPLETE,
+     FILTER_BY_CATEGORY, FILTER_BY_PROCESSOR, FILTER_BY_OS
+ }
+
+ private static final int MAGIC = 0x494E5657; // "INVW"
+ private static final byte VERSION = 1;
+ private static final OpType[] OP_TYPES = OpType.values();
+
+ private static final String[] CATEGORIES = {"Electronics", "Accessories", "Furniture", "Office", "Audio", "Gaming",
+         "Networking", "Storage", "Cameras", "Wearables", "Kitchen", "Lighting"};
+ private static final String[] PROCESSORS = {"Intel i5", "Intel i7", "Intel i9", "AMD Ryzen 5", "AMD Ryzen 7", "Apple M2"};
+ private static final String[] SYSTEMS = {"Android", "iOS", "HarmonyOS"};
+ private static final String[] BRANDS = {"Acme", "Nova", "Orion", "Zenith", "Vertex", "Pulse", "Atlas", "Lumen"};
+ private static final String[] WORDS = {"Pro", "Max", "Ultra", "Mini", "Air", "Plus", "Lite", "Edge", "Prime", "Core",
+         "Wireless", "Smart", "Compact", "Portable", "Premium", "Classic"};
+
+ private static final double SELLING_IN_RATIO = 0.3;   // Share of INs while selling
+ private static final double RESTOCK_IN_RATIO = 0.9;   // Share of INs during a restocking burst
+ private static final double RESTOCK_START = 0.002;    // Per movement chance that a burst starts
+ private static final double RESTOCK_END = 0.02;       // Per movement chance that a burst ends
+ private static final double RETRY_RATIO = 0.01;       // Movements that repeat a recent key
+ private static final int RETRY_WINDOW = 1000;         // How far back a retry may reach, in operations
+
+ private final long seed;
+ private final Product[] catalogue;
+ private final double[] unitCosts;   // Opening and purchase cost per product
+ private final String[] terms;       // Search terms, prefixes and filter values referenced by operations
+ private final byte[] opTypes;
+ private final int[] targets;        // Product index, or term index for searches and filters
+ private final int[] quantities;     // Units for movements
+ private final int[] keys;           // Idempotency key number for movements, -1 otherwise
+
+ private Workload(long seed, Product[] catalogue, double[] unitCosts, String[] terms,
+                  byte[] opTypes, int[] targets, int[] quantities, int[] keys) {
+     this.seed = seed;
+     this.catalogue = catalogue;
+     this.unitCosts = unitCosts;
+     this.terms = terms;
+     this.opTypes = opTypes;
+     this.targets = targets;
+     this.quantities = quantities;
+     this.keys = keys;
+ }
+
+ // Deterministic workload: same seed and sizes give the same catalogue and operations
+ public static Workload generate(long seed, int productCount, int operationCount, double zipfExponent) {
+     if (productCount < 1 || operationCount < 0) {
+         throw new IllegalArgumentException("Need at least one product and a non-negative operation count");
+     }
+     Random random = new Random(seed);
+     Product[] catalogue = new Product[productCount];
+     double[] unitCosts = new double[productCount];
+     for (int i = 0; i < productCount; i++) {
+         catalogue[i] = sampleProduct(i, random);
+         unitCosts[i] = Math.round(catalogue[i].getPrice() * (0.5 + 0.2 * random.nextDouble()) * 100) / 100.0;
+     }
+
+     // Term table: name words, ID/word prefixes and every filter value
+     Set<String> termSet = new LinkedHashSet<>();
+     termSet.addAll(Arrays.asList(BRANDS));
+     termSet.addAll(Arrays.asList(WORDS));
+     for (String word : WORDS) {
+         termSet.add(word.substring(0, 2).toLowerCase());
+     }
+     termSet.add("p00");
+     termSet.add("p01");
+     termSet.addAll(Arrays.asList(CATEGORIES));
+     termSet.addAll(Arrays.asList(PROCESSORS));
+     termSet.addAll(Arrays.asList(SYSTEMS));
+     String[] terms = termSet.toArray(new String[0]);
+     List<String> termList = Arrays.asList(terms);
+     int brandsStart = termList.indexOf(BRANDS[0]);
+     int prefixesStart = termList.indexOf(WORDS[0].substring(0, 2).toLowerCase());
+     int categoriesStart = termList.indexOf(CATEGORIES[0]);
+     int processorsStart = termList.indexOf(PROCESSORS[0]);
+     int systemsStart = termList.indexOf(SYSTEMS[0]);
+
+     ZipfSampler products = new ZipfSampler(productCount, zipfExponent);
+     ZipfSampler categories = new ZipfSampler(CATEGORIES.length, 1.0);
+     byte[] opTypes = new byte[operationCount];
+     int[] targets = new int[operationCount];
+     int[] quantities = new int[operationCount];
+     int[] keys = new int[operationCount];
+     boolean restocking = false;
+     int nextKey = 0;
+     for (int i = 0; i < operationCount; i++) {
+         keys[i] = -1;
+         int roll = random.nextInt(100);
+         OpType type;
+         if (roll < 50) {
+             type = OpType.GET_PRODUCT;
+             targets[i] = products.next(random);
+         } else if (roll < 75) {
+             if (i > 0 && random.nextDouble() < RETRY_RATIO) {
+                 int original = retryCandidate(opTypes, keys, i, random);
+                 if (original >= 0) { // Repeat a recent movement exactly, key included
+                     opTypes[i] = opTypes[original];
+                     targets[i] = targets[original];
+                     quantities[i] = quantities[original];
+                     keys[i] = keys[original];
+                     continue;
+                 }
+             }
+             restocking = restocking ? random.nextDouble() >= RESTOCK_END : random.nextDouble() < RESTOCK_START;
+             boolean in = random.nextDouble() < (restocking ? RESTOCK_IN_RATIO : SELLING_IN_RATIO);
+             type = in ? OpType.STOCK_IN : OpType.STOCK_OUT;
+             targets[i] = products.next(random);
+             quantities[i] = in ? 20 + random.nextInt(181) : 1 + random.nextInt(5);
+             keys[i] = nextKey++;
+         } else if (roll < 85) {
+             type = OpType.SEARCH_BY_NAME;
+             targets[i] = brandsStart + random.nextInt(BRANDS.length + WORDS.length);
+         } else if (roll < 92) {
+             type = OpType.AUTOCOMPLETE;
+             targets[i] = prefixesStart + random.nextInt(categoriesStart - prefixesStart);
+         } else if (roll < 97) {
+             type = OpType.FILTER_BY_CATEGORY;
+             targets[i] = categoriesStart + categories.next(random);
+         } else if (random.nextBoolean()) {
+             type = OpType.FILTER_BY_PROCESSOR;
+             targets[i] = processorsStart + random.nextInt(PROCESSORS.length);
+         } else {
+             type = OpType.FILTER_BY_OS;
+             targets[i] = systemsStart + random.nextInt(SYSTEMS.length);
+         }
+         opTypes[i] = (byte) type.ordinal();
+     }
+     return new Workload(seed, catalogue, unitCosts, terms, opTypes, targets, quantities, keys);
+ }
+
+ // A movement within the last RETRY_WINDOW operations, or -1 if none was found
+ private static int retryCandidate(byte[] opTypes, int[] keys, int i, Random random) {
+     for (int attempt = 0; attempt < 8; attempt++) {
+         int candidate = i - 1 - random.nextInt(Math.min(i, RETRY_WINDOW));
+         if (keys[candidate] >= 0) {
+             return candidate;
+         }
+     }
+     return -1;
+ }
+
+ private static Product sampleProduct(int i, Random random) {
+     String id = String.format("P%07d", i);
+     String name = BRANDS[random.nextInt(BRANDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+             + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+     int quantity = 50 + random.nextInt(451);
+     int kind = random.nextInt(100);
+     if (kind < 25) {
+         double price = 400 + random.nextInt(2600);
+         return new Laptop(id, name, price, quantity, "Laptops", PROCESSORS[random.nextInt(PROCESSORS.length)],
+                 8 << random.nextInt(4), 256 << random.nextInt(4));
+     }
+     if (kind < 40) {
+         double price = 150 + random.nextInt(1350);
+         return new Smartphone(id, name, price, quantity, "Smartphones", 5.4 + random.nextInt(14) / 10.0,
+                 12 << random.nextInt(4), SYSTEMS[random.nextInt(SYSTEMS.length)]);
+     }
+     double price = 2 + random.nextInt(500) + random.nextInt(100) / 100.0;
+     return new Product(id, name, price, quantity, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+ }
+
+ // Load the catalogue into an (empty) inventory; products are copied, so a workload can be reused
+ public void loadCatalogue(Inventory inventory) {
+     for (int i = 0; i < catalogue.length; i++) {
+         inventory.addProduct(copy(catalogue[i]), unitCosts[i]);
+     }
+ }
+
+ private static Product copy(Product p) {
+     if (p instanceof Laptop) {
+         Laptop l = (Laptop) p;
+         return new Laptop(l.getProductId(), l.getName(), l.getPrice(), l.getQuantity(), l.getCategory(),
+                 l.getProcessor(), l.getRamGB(), l.getStorageGB());
+     }
+     if (p instanceof Smartphone) {
+         Smartphone s = (Smartphone) p;
+         return new Smartphone(s.getProductId(), s.getName(), s.getPrice(), s.getQuantity(), s.getCategory(),
+                 s.getScreenSizeInches(), s.getCameraMP(), s.getOperatingSystem());
+     }
+     return new Product(p.getProductId(), p.getName(), p.getPrice(), p.getQuantity(), p.getCategory());
+ }
+
+ // Run operation i against inventory (thread-safe as long as the inventory is)
+ public void execute(int i, Inventory inventory) {
+     int target = targets[i];
+     switch (OP_TYPES[opTypes[i]]) {
+         case GET_PRODUCT:
+             inventory.getProduct(catalogue[target].getProductId());
+             break;
+         case STOCK_IN:
+             inventory.addStock(catalogue[target].getProductId(), quantities[i], unitCosts[target], "w" + keys[i]);
+             break;
+         case STOCK_OUT:
+             inventory.removeStock(catalogue[target].getProductId(), quantities[i], "w" + keys[i]);
+             break;
+         case SEARCH_BY_NAME:
+             inventory.searchProductsByName(terms[target]);
+             break;
+         case AUTOCOMPLETE:
+             inventory.autocomplete(terms[target], 10, ProductAutocomplete.Ranking.STOCK);
+             break;
+         case FILTER_BY_CATEGORY:
+             inventory.filterProductsByCategory(terms[target]);
+             break;
+         case FILTER_BY_PROCESSOR:
+             inventory.filterLaptopsByProcessor(terms[target]);
+             break;
+         default: // FILTER_BY_OS
+             inventory.filterSmartphonesByOperatingSystem(terms[target]);
+             break;
+     }
+ }
+
+ public OpType getOpType(int i) {
+     return OP_TYPES[opTypes[i]];
+ }
+
+ public int getOperationCount() {
+     return opTypes.length;
+ }
+
+ public int getProductCount() {
+     return catalogue.length;
+ }
+
+ public long getSeed() {
+     return seed;
+ }
+
+ // --- Record / replay ---
+
+ public void save(String path) throws IOException {
+     try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16))) {
+         out.writeInt(MAGIC);
+         out.writeByte(VERSION);
+         out.writeLong(seed);
+         out.writeInt(catalogue.length);
+         for (int i = 0; i < catalogue.length; i++) {
+             ReplicationProtocol.writeProduct(out, catalogue[i]);
+             out.writeDouble(unitCosts[i]);
+         }
+         out.writeInt(terms.length);
+         for (String term : terms) {
+             out.writeUTF(term);
+         }
+         out.writeInt(opTypes.length);
+         for (int i = 0; i < opTypes.length; i++) {
+             out.writeByte(opTypes[i]);
+             out.writeInt(targets[i]);
+             out.writeInt(quantities[i]);
+             out.writeInt(keys[i]);
+         }
+     }
+ }
+
+ public static Workload load(String path) throws IOException {
+     try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16))) {
+         if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+             throw new IOException("Not a workload file: " + path);
+         }
+         long seed = in.readLong();
+         Product[] catalogue = new Product[in.readInt()];
+         double[] unitCosts = new double[catalogue.length];
+         for (int i = 0; i < catalogue.length; i++) {
+             catalogue[i] = ReplicationProtocol.readProduct(in);
+             unitCosts[i] = in.readDouble();
+         }
+         String[] terms = new String[in.readInt()];
+         for (int i = 0; i < terms.length; i++) {
+             terms[i] = in.readUTF();
+         }
+         int count = in.readInt();
+         byte[] opTypes = new byte[count];
+         int[] targets = new int[count];
+         int[] quantities = new int[count];
+         int[] keys = new int[count];
+         for (int i = 0; i < count; i++) {
+             opTypes[i] = in.readByte();
+             targets[i] = in.readInt();
+             quantities[i] = in.readInt();
+             keys[i] = in.readInt();
+             if (opTypes[i] < 0 || opTypes[i] >= OP_TYPES.length) {
+                 throw new IOException("Corrupt workload file at operation " + i);
+             }
+         }
+         return new Workload(seed, catalogue, unitCosts, terms, opTypes, targets, quantities, keys);
+     }
+ }
+
+ /**
+  * Zipf(n, s) sampler over 0..n-1 (0 most popular) by inverse CDF on a precomputed table.
+  */
+ private static final class ZipfSampler {
+     private final double[] cumulative;
+
+     ZipfSampler(int n, double exponent) {
+         cumulative = new double[n];
+         double sum = 0;
+         for (int k = 0; k < n; k++) {
+             sum += 1 / Math.pow(k + 1, exponent);
+             cumulative[k] = sum;
+         }
+         for (int k = 0; k < n; k++) {
+             cumulative[k] /= sum;
+         }
+     }
+
+     int next(Random random) {
+         int index = Arrays.binarySearch(cumulative, random.nextDouble());
+         int rank = index >= 0 ? index : -index - 1;
+         return Math.min(rank, cumulative.length - 1);
+     }
+ }
+
+ // Operations of each type in this workload, in OpType order
+ public long[] countByType() {
+     long[] counts = new long[OP_TYPES.length];
+     for (byte type : opTypes) {
+         counts[type]++;
+     }
+     return counts;
+ }
+
+ @Override
+ public String toString() {
+     long[] counts = countByType();
+     List<String> parts = new ArrayList<>();
+     for (OpType type : OP_TYPES) {
+         parts.add(type + "=" + counts[type.ordinal()]);
+     }
+     return "Workload seed " + seed + ": " + catalogue.length + " products, " + opTypes.length + " operations "
+             + parts;
+ }
+}
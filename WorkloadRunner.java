@@ -0,0 +1,226 @@
+package com.InventoryManagement;
+
+//WorkloadRunner.java
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a {@link Workload} against an {@link Inventory} from several threads at a target rate,
+ * for capacity planning.
+ *
+ *   java com.InventoryManagement.WorkloadRunner record workload.bin 42 100000 2000000
+ *   java com.InventoryManagement.WorkloadRunner replay workload.bin 8 50000
+ *   java com.InventoryManagement.WorkloadRunner run 42 100000 2000000 8 50000
+ *
+ * Operations are started on a fixed schedule (operation i is due at start + i / rate) and taken in
+ * order by whichever thread is free. Latency is measured from when an operation was due, not from
+ * when a thread got to it, so falling behind shows up as latency instead of silently lowering the
+ * offered load. A rate of 0 runs unthrottled. While running, throughput, p99 and heap use are
+ * sampled at a fixed interval; the report adds per-operation percentiles, GC time and how much
+ * heap is still retained after the run (measured around an explicit GC).
+ */
+public class WorkloadRunner {
+ private static final long MB = 1024 * 1024;
+
+ private final Workload workload;
+ private final int threads;
+ private final double targetOpsPerSecond;
+ private final Histogram[] latencies = new Histogram[Workload.OpType.values().length];
+ private final Histogram overall = new Histogram();
+ private final Histogram serviceTimes = new Histogram(); // Execution time only, without schedule delay
+ private final List<long[]> timeline = new ArrayList<>();  // {elapsed ms, operations done, heap used}
+ private final AtomicInteger next = new AtomicInteger();
+ private final AtomicInteger completed = new AtomicInteger();
+ private long elapsedNanos;
+ private long retainedHeapBefore;
+ private long retainedHeapAfter;
+ private long peakHeap;
+ private long gcMillis;
+
+ public WorkloadRunner(Workload workload, int threads, double targetOpsPerSecond) {
+     if (threads < 1 || targetOpsPerSecond < 0) {
+         throw new IllegalArgumentException("Need at least one thread and a non-negative rate");
+     }
+     this.workload = workload;
+     this.threads = threads;
+     this.targetOpsPerSecond = targetOpsPerSecond;
+     for (int i = 0; i < latencies.length; i++) {
+         latencies[i] = new Histogram();
+     }
+ }
+
+ // Run every operation once; the catalogue must already be loaded. Progress lines go to progress (may be null).
+ public void run(Inventory inventory, long sampleIntervalMillis, PrintStream progress) throws InterruptedException {
+     MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+     System.gc();
+     retainedHeapBefore = memory.getHeapMemoryUsage().getUsed();
+     long gcBefore = totalGcMillis();
+
+     long start = System.nanoTime();
+     double nanosPerOp = targetOpsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / targetOpsPerSecond : 0;
+     Thread[] workers = new Thread[threads];
+     for (int t = 0; t < threads; t++) {
+         workers[t] = new Thread(() -> drive(inventory, start, nanosPerOp), "workload-" + t);
+         workers[t].start();
+     }
+
+     long interval = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sampleIntervalMillis));
+     long lastTime = start;
+     int lastDone = 0;
+     for (Thread worker : workers) {
+         while (worker.isAlive()) {
+             worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(lastTime + interval - System.nanoTime())));
+             long now = System.nanoTime();
+             if (now - lastTime >= interval) {
+                 lastDone = sample(now, start, lastTime, lastDone, memory, progress);
+                 lastTime = now;
+             }
+         }
+     }
+     elapsedNanos = System.nanoTime() - start;
+     sample(System.nanoTime(), start, lastTime, lastDone, memory, progress);
+
+     gcMillis = totalGcMillis() - gcBefore;
+     System.gc();
+     retainedHeapAfter = memory.getHeapMemoryUsage().getUsed();
+ }
+
+ private void drive(Inventory inventory, long start, double nanosPerOp) {
+     int count = workload.getOperationCount();
+     int i;
+     while ((i = next.getAndIncrement()) < count) {
+         long due = nanosPerOp > 0 ? start + (long) (i * nanosPerOp) : System.nanoTime();
+         long wait;
+         while ((wait = due - System.nanoTime()) > 0) {
+             LockSupport.parkNanos(wait);
+         }
+         long begin = System.nanoTime();
+         workload.execute(i, inventory);
+         long end = System.nanoTime();
+         serviceTimes.record(end - begin);
+         overall.record(end - due);
+         latencies[workload.getOpType(i).ordinal()].record(end - due);
+         completed.incrementAndGet();
+     }
+ }
+
+ private int sample(long now, long start, long lastTime, int lastDone, MemoryMXBean memory, PrintStream progress) {
+     int done = completed.get();
+     long heap = memory.getHeapMemoryUsage().getUsed();
+     peakHeap = Math.max(peakHeap, heap);
+     timeline.add(new long[]{TimeUnit.NANOSECONDS.toMillis(now - start), done, heap});
+     if (progress != null) {
+         double seconds = (now - lastTime) / 1e9;
+         progress.println(String.format("%7.1fs %10d ops %10.0f ops/s  p99 %9.1fus  heap %7.1f MB",
+                 (now - start) / 1e9, done, seconds > 0 ? (done - lastDone) / seconds : 0,
+                 overall.getPercentile(99) / 1000.0, (double) heap / MB));
+     }
+     return done;
+ }
+
+ private static long totalGcMillis() {
+     long total = 0;
+     for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+         total += Math.max(0, gc.getCollectionTime());
+     }
+     return total;
+ }
+
+ // Getters
+ public double getAchievedOpsPerSecond() {
+     return elapsedNanos > 0 ? completed.get() / (elapsedNanos / 1e9) : 0;
+ }
+
+ public long getElapsedMillis() {
+     return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+ }
+
+ public Histogram getLatencies(Workload.OpType type) {
+     return latencies[type.ordinal()];
+ }
+
+ public Histogram getOverallLatencies() {
+     return overall;
+ }
+
+ public Histogram getServiceTimes() {
+     return serviceTimes;
+ }
+
+ // Samples taken during the run: {elapsed ms, operations done, heap used in bytes}
+ public List<long[]> getTimeline() {
+     return timeline;
+ }
+
+ // Heap still in use after the run compared to before it, both measured after a GC
+ public long getRetainedHeapGrowth() {
+     return retainedHeapAfter - retainedHeapBefore;
+ }
+
+ public String report() {
+     StringBuilder sb = new StringBuilder();
+     sb.append(String.format("Operations: %d in %.2fs, %.0f ops/s achieved (target %s) on %d threads%n",
+             completed.get(), elapsedNanos / 1e9, getAchievedOpsPerSecond(),
+             targetOpsPerSecond > 0 ? String.format("%.0f", targetOpsPerSecond) : "unthrottled", threads));
+     sb.append(String.format("%-22s %12s %10s %10s %10s %10s%n", "Operation", "Calls", "p50(us)", "p99(us)", "p99.9(us)", "max(us)"));
+     for (Workload.OpType type : Workload.OpType.values()) {
+         appendRow(sb, type.toString(), latencies[type.ordinal()]);
+     }
+     appendRow(sb, "ALL", overall);
+     appendRow(sb, "ALL (service time)", serviceTimes);
+     sb.append(String.format("Heap: retained %.1f MB before, %.1f MB after (%+.1f MB), peak sampled %.1f MB, GC time %d ms%n",
+             (double) retainedHeapBefore / MB, (double) retainedHeapAfter / MB, (double) getRetainedHeapGrowth() / MB,
+             (double) peakHeap / MB, gcMillis));
+     return sb.toString();
+ }
+
+ private static void appendRow(StringBuilder sb, String name, Histogram h) {
+     if (h.getCount() == 0) {
+         return;
+     }
+     sb.append(String.format("%-22s %12d %10.1f %10.1f %10.1f %10.1f%n", name, h.getCount(),
+             h.getPercentile(50) / 1000.0, h.getPercentile(99) / 1000.0,
+             h.getPercentile(99.9) / 1000.0, h.getMax() / 1000.0));
+ }
+
+ public static void main(String[] args) throws IOException, InterruptedException {
+     if (args.length >= 5 && args[0].equals("record")) {
+         double zipf = args.length > 5 ? Double.parseDouble(args[5]) : 1.0;
+         Workload workload = Workload.generate(Long.parseLong(args[2]), Integer.parseInt(args[3]),
+                 Integer.parseInt(args[4]), zipf);
+         workload.save(args[1]);
+         System.out.println("Recorded to " + args[1] + ": " + workload);
+     } else if (args.length >= 4 && args[0].equals("replay")) {
+         runAndReport(Workload.load(args[1]), Integer.parseInt(args[2]), Double.parseDouble(args[3]));
+     } else if (args.length >= 6 && args[0].equals("run")) {
+         runAndReport(Workload.generate(Long.parseLong(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), 1.0),
+                 Integer.parseInt(args[4]), Double.parseDouble(args[5]));
+     } else {
+         System.out.println("Usage: WorkloadRunner record <file> <seed> <products> <operations> [zipfExponent]");
+         System.out.println("       WorkloadRunner replay <file> <threads> <opsPerSecond>");
+         System.out.println("       WorkloadRunner run <seed> <products> <operations> <threads> <opsPerSecond>");
+         System.out.println("An opsPerSecond of 0 runs unthrottled.");
+     }
+ }
+
+ private static void runAndReport(Workload workload, int threads, double opsPerSecond) throws InterruptedException {
+     System.out.println(workload);
+     Inventory inventory = new Inventory();
+     long loadStart = System.nanoTime();
+     workload.loadCatalogue(inventory);
+     System.out.println(String.format("Catalogue loaded in %d ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStart)));
+     WorkloadRunner runner = new WorkloadRunner(workload, threads, opsPerSecond);
+     runner.run(inventory, 1000, System.out);
+     System.out.print(runner.report());
+     System.out.println(String.format("Final stock value: %.2f (weighted average), %d transactions",
+             inventory.getInventoryValue(InventoryValuation.CostMethod.WEIGHTED_AVERAGE), inventory.getTransactionCount()));
+ }
+}